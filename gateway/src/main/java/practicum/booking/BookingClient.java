@@ -1,5 +1,6 @@
 package practicum.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -7,10 +8,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import practicum.booking.dto.BookingBatchDto;
+import practicum.booking.dto.BookingDecisionBatchDto;
 import practicum.booking.dto.BookingDto;
-import practicum.booking.enums.BookingState;
+import practicum.booking.enums.BookingExportFormat;
 import practicum.client.BaseClient;
 
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -31,24 +36,89 @@ public class BookingClient extends BaseClient {
         return post("", bookerId, bookingDto);
     }
 
+    public ResponseEntity<Object> createBatch(long bookerId, BookingBatchDto batch) {
+        return post("/batch", bookerId, batch);
+    }
+
     public ResponseEntity<Object> approveOrRejectBooking(long ownerId, long bookingId, Boolean approved) {
         String url = "/" + bookingId + "?approved=" + approved;
         return patch(url, ownerId);
     }
 
+    public ResponseEntity<Object> decideBookings(long ownerId, BookingDecisionBatchDto batch) {
+        return patch("", ownerId, batch);
+    }
 
     public ResponseEntity<Object> getById(long requesterId, long bookingId) {
         return get("/" + bookingId, requesterId);
     }
 
-    public ResponseEntity<Object> getBookingsByBookerIdWithFilter(long bookerId, BookingState state) {
-        Map<String, Object> parameters = Map.of("state", state.name());
-        return get("?state={state}", bookerId, parameters);
+    public ResponseEntity<Object> getBookingsByBookerIdWithFilter(long bookerId, BookingFilterParams filter,
+                                                                  Integer from, Integer size, String cursor) {
+        return getPage("", bookerId, filter, from, size, cursor);
+    }
+
+    public ResponseEntity<Object> getBookingsByOwnerIdWithFilter(long ownerId, BookingFilterParams filter,
+                                                                 Integer from, Integer size, String cursor) {
+        return getPage("/owner", ownerId, filter, from, size, cursor);
+    }
+
+    public ResponseEntity<Object> countBookingsByBookerId(long bookerId) {
+        return get("/counts", bookerId);
+    }
+
+    public ResponseEntity<Object> countBookingsByOwnerId(long ownerId) {
+        return get("/owner/counts", ownerId);
+    }
+
+    public void exportBookingsByOwnerId(long ownerId, BookingFilterParams filter, BookingExportFormat format,
+                                        HttpServletResponse response) throws IOException {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder url = filterQuery("/owner/export", filter, parameters);
+        parameters.put("format", format.name());
+        url.append("&format={format}");
+        stream(url.toString(), ownerId, parameters, response);
+    }
+
+    private ResponseEntity<Object> getPage(String path, long userId, BookingFilterParams filter,
+                                           Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder url = filterQuery(path, filter, parameters);
+        if (from != null) {
+            parameters.put("from", from);
+            url.append("&from={from}");
+        }
+        if (size != null) {
+            parameters.put("size", size);
+            url.append("&size={size}");
+        }
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+            url.append("&cursor={cursor}");
+        }
+        return get(url.toString(), userId, parameters);
     }
 
-    public ResponseEntity<Object> getBookingsByOwnerIdWithFilter(long ownerId, BookingState state) {
-        Map<String, Object> parameters = Map.of("state", state.name());
-        return get("/owner?state={state}", ownerId, parameters);
+    private static StringBuilder filterQuery(String path, BookingFilterParams filter, Map<String, Object> parameters) {
+        parameters.put("state", filter.state().name());
+        StringBuilder url = new StringBuilder(path).append("?state={state}");
+        if (filter.status() != null) {
+            parameters.put("status", filter.status().name());
+            url.append("&status={status}");
+        }
+        if (filter.itemId() != null) {
+            parameters.put("itemId", filter.itemId());
+            url.append("&itemId={itemId}");
+        }
+        if (filter.rangeStart() != null) {
+            parameters.put("rangeStart", filter.rangeStart());
+            url.append("&rangeStart={rangeStart}");
+        }
+        if (filter.rangeEnd() != null) {
+            parameters.put("rangeEnd", filter.rangeEnd());
+            url.append("&rangeEnd={rangeEnd}");
+        }
+        return url;
     }
 
 }
\ No newline at end of file
@@ -1,12 +1,23 @@
 package practicum.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import practicum.booking.dto.BookingBatchDto;
+import practicum.booking.dto.BookingDecisionBatchDto;
 import practicum.booking.dto.BookingDto;
+import practicum.booking.enums.BookingExportFormat;
 import practicum.booking.enums.BookingState;
+import practicum.booking.enums.Status;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
 
 @Slf4j
 @RestController
@@ -23,6 +34,13 @@ public class BookingController {
         return bookingClient.create(bookerId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createBatch(@RequestHeader("X-Sharer-User-Id") long bookerId,
+                                              @Valid @RequestBody BookingBatchDto batch) {
+        log.debug("Создание пачки бронирований [{}], id заказчика = [{}]", batch, bookerId);
+        return bookingClient.createBatch(bookerId, batch);
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> approveOrRejectBooking(@RequestHeader("X-Sharer-User-Id") long ownerId,
                                                          @PathVariable long bookingId,
@@ -32,6 +50,13 @@ public class BookingController {
         return bookingClient.approveOrRejectBooking(ownerId, bookingId, approved);
     }
 
+    @PatchMapping
+    public ResponseEntity<Object> decideBookings(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                 @Valid @RequestBody BookingDecisionBatchDto batch) {
+        log.debug("Рассмотрение пачки бронирований [{}], id владельца = [{}]", batch, ownerId);
+        return bookingClient.decideBookings(ownerId, batch);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getById(@RequestHeader("X-Sharer-User-Id") long requesterId,
                                           @PathVariable long bookingId) {
@@ -42,18 +67,64 @@ public class BookingController {
 
     @GetMapping
     public ResponseEntity<Object> getBookingsByBookerIdWithFilter(@RequestHeader("X-Sharer-User-Id") long bookerId,
-                                                                  @RequestParam(name = "state", defaultValue = "ALL") BookingState state) {
-        log.debug("Получение всех своих бронирований со статусом для фильтрации = [{}] заказчиком с id = [{}]",
-                state, bookerId);
-        return bookingClient.getBookingsByBookerIdWithFilter(bookerId, state);
+                                                                  @RequestParam(name = "state", defaultValue = "ALL") BookingState state,
+                                                                  @RequestParam(required = false) Status status,
+                                                                  @RequestParam(required = false) Long itemId,
+                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeStart,
+                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeEnd,
+                                                                  @RequestParam(required = false) @PositiveOrZero Integer from,
+                                                                  @RequestParam(required = false) @Positive Integer size,
+                                                                  @RequestParam(required = false) String cursor) {
+        log.debug("Получение своих бронирований со статусом для фильтрации = [{}] заказчиком с id = [{}], " +
+                "status = [{}], itemId = [{}], период = [{} - {}], from = [{}], size = [{}], cursor = [{}]",
+                state, bookerId, status, itemId, rangeStart, rangeEnd, from, size, cursor);
+        return bookingClient.getBookingsByBookerIdWithFilter(bookerId, new BookingFilterParams(state, status, itemId,
+                rangeStart, rangeEnd), from, size, cursor);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> getBookingsByOwnerIdWithFilter(@RequestHeader("X-Sharer-User-Id") long ownerId,
-                                                                 @RequestParam(name = "state", defaultValue = "ALL") BookingState state) {
-        log.debug("Получение всех своих бронирований со статусом для фильтрации = [{}] владельцем с id = [{}]",
-                state, ownerId);
-        return bookingClient.getBookingsByOwnerIdWithFilter(ownerId, state);
+                                                                 @RequestParam(name = "state", defaultValue = "ALL") BookingState state,
+                                                                 @RequestParam(required = false) Status status,
+                                                                 @RequestParam(required = false) Long itemId,
+                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeStart,
+                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeEnd,
+                                                                 @RequestParam(required = false) @PositiveOrZero Integer from,
+                                                                 @RequestParam(required = false) @Positive Integer size,
+                                                                 @RequestParam(required = false) String cursor) {
+        log.debug("Получение своих бронирований со статусом для фильтрации = [{}] владельцем с id = [{}], " +
+                "status = [{}], itemId = [{}], период = [{} - {}], from = [{}], size = [{}], cursor = [{}]",
+                state, ownerId, status, itemId, rangeStart, rangeEnd, from, size, cursor);
+        return bookingClient.getBookingsByOwnerIdWithFilter(ownerId, new BookingFilterParams(state, status, itemId,
+                rangeStart, rangeEnd), from, size, cursor);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportBookingsByOwnerId(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                        @RequestParam(name = "state", defaultValue = "ALL") BookingState state,
+                                        @RequestParam(required = false) Status status,
+                                        @RequestParam(required = false) Long itemId,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeStart,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeEnd,
+                                        @RequestParam(defaultValue = "CSV") BookingExportFormat format,
+                                        HttpServletResponse response) throws IOException {
+        log.debug("Выгрузка бронирований со статусом для фильтрации = [{}] владельцем с id = [{}], " +
+                "status = [{}], itemId = [{}], период = [{} - {}], формат = [{}]",
+                state, ownerId, status, itemId, rangeStart, rangeEnd, format);
+        bookingClient.exportBookingsByOwnerId(ownerId, new BookingFilterParams(state, status, itemId,
+                rangeStart, rangeEnd), format, response);
+    }
+
+    @GetMapping("/counts")
+    public ResponseEntity<Object> countBookingsByBookerId(@RequestHeader("X-Sharer-User-Id") long bookerId) {
+        log.debug("Получение количества бронирований по статусам для фильтрации заказчиком с id = [{}]", bookerId);
+        return bookingClient.countBookingsByBookerId(bookerId);
+    }
+
+    @GetMapping("/owner/counts")
+    public ResponseEntity<Object> countBookingsByOwnerId(@RequestHeader("X-Sharer-User-Id") long ownerId) {
+        log.debug("Получение количества бронирований по статусам для фильтрации владельцем с id = [{}]", ownerId);
+        return bookingClient.countBookingsByOwnerId(ownerId);
     }
 
 }
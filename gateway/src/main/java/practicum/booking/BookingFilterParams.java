@@ -0,0 +1,13 @@
+package practicum.booking;
+
+import practicum.booking.enums.BookingState;
+import practicum.booking.enums.Status;
+
+import java.time.LocalDateTime;
+
+public record BookingFilterParams(BookingState state,
+                                  Status status,
+                                  Long itemId,
+                                  LocalDateTime rangeStart,
+                                  LocalDateTime rangeEnd) {
+}
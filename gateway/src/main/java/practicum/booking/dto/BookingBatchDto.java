@@ -0,0 +1,14 @@
+package practicum.booking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BookingBatchDto {
+
+    @NotEmpty(message = "Список бронирований не может быть пустым")
+    private List<@Valid BookingDto> bookings;
+}
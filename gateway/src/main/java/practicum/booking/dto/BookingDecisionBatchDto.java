@@ -0,0 +1,14 @@
+package practicum.booking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BookingDecisionBatchDto {
+
+    @NotEmpty(message = "Список решений по бронированиям не может быть пустым")
+    private List<@Valid BookingDecisionDto> decisions;
+}
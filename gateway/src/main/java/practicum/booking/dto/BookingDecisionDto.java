@@ -0,0 +1,14 @@
+package practicum.booking.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class BookingDecisionDto {
+
+    @NotNull(message = "Должен быть указан id бронирования")
+    private Long bookingId;
+
+    @NotNull(message = "Должно быть указано решение по бронированию")
+    private Boolean approved;
+}
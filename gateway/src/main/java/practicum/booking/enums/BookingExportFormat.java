@@ -0,0 +1,6 @@
+package practicum.booking.enums;
+
+public enum BookingExportFormat {
+    CSV,
+    NDJSON
+}
@@ -1,10 +1,13 @@
 package practicum.client;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -79,6 +82,40 @@ public class BaseClient {
         makeAndSendRequest(HttpMethod.DELETE, path, null, null, null);
     }
 
+    /**
+     * Передает ответ сервера клиенту по мере чтения, не разбирая и не накапливая тело. Для выгрузок, размер
+     * которых заранее не известен.
+     */
+    protected void stream(String path, long userId, Map<String, Object> parameters,
+                          HttpServletResponse target) throws IOException {
+        try {
+            rest.execute(path, HttpMethod.GET,
+                    request -> request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId)),
+                    response -> {
+                        copyHeaders(response.getStatusCode(), response.getHeaders(), target);
+                        StreamUtils.copy(response.getBody(), target.getOutputStream());
+                        return null;
+                    }, parameters);
+        } catch (HttpStatusCodeException e) {
+            copyHeaders(e.getStatusCode(), e.getResponseHeaders(), target);
+            target.getOutputStream().write(e.getResponseBodyAsByteArray());
+        }
+    }
+
+    private static void copyHeaders(HttpStatusCode status, @Nullable HttpHeaders headers, HttpServletResponse target) {
+        target.setStatus(status.value());
+        if (headers == null) {
+            return;
+        }
+        if (headers.getContentType() != null) {
+            target.setContentType(headers.getContentType().toString());
+        }
+        String contentDisposition = headers.getFirst(HttpHeaders.CONTENT_DISPOSITION);
+        if (contentDisposition != null) {
+            target.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
@@ -12,6 +12,8 @@ import practicum.item.dto.CommentDto;
 import practicum.item.dto.ItemDto;
 import practicum.item.dto.ItemUpdateDto;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -44,9 +46,42 @@ public class ItemClient extends BaseClient {
         return get("", ownerId);
     }
 
-    public ResponseEntity<Object> getAllItemsByText(long userId, String text) {
-        Map<String, Object> parameters = Map.of("text", text);
-        return get("/search?text={text}", userId, parameters);
+    public ResponseEntity<Object> getAllItemsByText(long userId, String text, Integer limit, String cursor, boolean fuzzy,
+                                                    LocalDateTime start, LocalDateTime end) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+        StringBuilder path = new StringBuilder("/search?text={text}");
+        if (limit != null) {
+            parameters.put("limit", limit);
+            path.append("&limit={limit}");
+        }
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+            path.append("&cursor={cursor}");
+        }
+        if (fuzzy) {
+            parameters.put("fuzzy", true);
+            path.append("&fuzzy={fuzzy}");
+        }
+        if (start != null) {
+            parameters.put("start", start);
+            path.append("&start={start}");
+        }
+        if (end != null) {
+            parameters.put("end", end);
+            path.append("&end={end}");
+        }
+        return get(path.toString(), userId, parameters);
+    }
+
+    public ResponseEntity<Object> suggestNames(long userId, String prefix, Integer limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("prefix", prefix);
+        if (limit == null) {
+            return get("/suggest?prefix={prefix}", userId, parameters);
+        }
+        parameters.put("limit", limit);
+        return get("/suggest?prefix={prefix}&limit={limit}", userId, parameters);
     }
 
     public ResponseEntity<Object> createComment(long authorId, long itemId, CommentDto commentDto) {
@@ -1,14 +1,18 @@
 package practicum.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import practicum.item.dto.CommentDto;
 import practicum.item.dto.ItemDto;
 import practicum.item.dto.ItemUpdateDto;
 
+import java.time.LocalDateTime;
+
 @Slf4j
 @RestController
 @RequiredArgsConstructor
@@ -47,9 +51,27 @@ public class ItemController {
 
     @GetMapping("/search")
     public ResponseEntity<Object> getAllItemsByText(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                    @RequestParam String text) {
-        log.debug("Получение всех доступных вещей по подстроке = [{}]", text);
-        return itemClient.getAllItemsByText(userId, text);
+                                                    @RequestParam String text,
+                                                    @RequestParam(required = false) @Positive Integer limit,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "false") boolean fuzzy,
+                                                    @RequestParam(required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                    LocalDateTime start,
+                                                    @RequestParam(required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                    LocalDateTime end) {
+        log.debug("Получение доступных вещей по подстроке = [{}], limit = [{}], cursor = [{}], fuzzy = [{}], " +
+                "свободных с [{}] по [{}]", text, limit, cursor, fuzzy, start, end);
+        return itemClient.getAllItemsByText(userId, text, limit, cursor, fuzzy, start, end);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestNames(@RequestHeader("X-Sharer-User-Id") long userId,
+                                               @RequestParam String prefix,
+                                               @RequestParam(required = false) @Positive Integer limit) {
+        log.debug("Получение подсказок названий вещей по префиксу = [{}]", prefix);
+        return itemClient.suggestNames(userId, prefix, limit);
     }
 
     @PostMapping("/{itemId}/comment")
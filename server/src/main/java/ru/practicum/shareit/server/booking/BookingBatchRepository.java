@@ -0,0 +1,17 @@
+package ru.practicum.shareit.server.booking;
+
+import java.util.List;
+
+public interface BookingBatchRepository {
+
+    /**
+     * Выполняет {@link BookingRepository#APPROVE_IF_WAITING} для каждого id одним JDBC-батчем. Возвращает
+     * число измененных строк по каждому id в порядке списка.
+     */
+    int[] approveAllIfWaiting(List<Long> bookingIds, Long ownerId);
+
+    /**
+     * Выполняет {@link BookingRepository#REJECT_IF_WAITING} для каждого id одним JDBC-батчем.
+     */
+    int[] rejectAllIfWaiting(List<Long> bookingIds, Long ownerId);
+}
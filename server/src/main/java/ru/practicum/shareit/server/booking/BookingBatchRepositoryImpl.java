@@ -0,0 +1,41 @@
+package ru.practicum.shareit.server.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.List;
+
+/**
+ * Условные UPDATE по нескольким бронированиям за один обмен с базой. Выполняются на соединении текущей
+ * JPA-транзакции. Каждая строка батча проверяет статус и {@code NOT EXISTS} заново, поэтому видит подтверждения,
+ * сделанные предыдущими строками того же батча.
+ */
+@RequiredArgsConstructor
+public class BookingBatchRepositoryImpl implements BookingBatchRepository {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Override
+    public int[] approveAllIfWaiting(List<Long> bookingIds, Long ownerId) {
+        return update(BookingRepository.APPROVE_IF_WAITING, bookingIds, ownerId);
+    }
+
+    @Override
+    public int[] rejectAllIfWaiting(List<Long> bookingIds, Long ownerId) {
+        return update(BookingRepository.REJECT_IF_WAITING, bookingIds, ownerId);
+    }
+
+    private int[] update(String sql, List<Long> bookingIds, Long ownerId) {
+        if (bookingIds.isEmpty()) {
+            return new int[0];
+        }
+        SqlParameterSource[] batch = bookingIds.stream()
+                .map(bookingId -> new MapSqlParameterSource()
+                        .addValue("bookingId", bookingId)
+                        .addValue("ownerId", ownerId))
+                .toArray(SqlParameterSource[]::new);
+        return namedParameterJdbcTemplate.batchUpdate(sql, batch);
+    }
+}
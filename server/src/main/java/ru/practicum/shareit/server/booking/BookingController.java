@@ -2,10 +2,24 @@ package ru.practicum.shareit.server.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.server.booking.dto.BookingBatchDto;
+import ru.practicum.shareit.server.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionBatchDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.booking.dto.BookingPageDto;
+import ru.practicum.shareit.server.booking.enums.BookingExportFormat;
 import ru.practicum.shareit.server.booking.enums.BookingState;
+import ru.practicum.shareit.server.booking.enums.Status;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -14,7 +28,10 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 public class BookingController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService bookingService;
+    private final BookingExportService bookingExportService;
 
     @PostMapping
     public BookingDto create(@RequestHeader("X-Sharer-User-Id") long bookerId,
@@ -23,6 +40,13 @@ public class BookingController {
         return bookingService.create(bookerId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingDto> createBatch(@RequestHeader("X-Sharer-User-Id") long bookerId,
+                                        @RequestBody BookingBatchDto batch) {
+        log.debug("Создание пачки бронирований [{}], id заказчика = [{}]", batch, bookerId);
+        return bookingService.createBatch(bookerId, batch.getBookings());
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto approveOrRejectBooking(@RequestHeader("X-Sharer-User-Id") long ownerId,
                                              @PathVariable long bookingId,
@@ -32,6 +56,13 @@ public class BookingController {
         return bookingService.approveOrRejectBooking(ownerId, bookingId, approved);
     }
 
+    @PatchMapping
+    public List<BookingDecisionResultDto> decideBookings(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                         @RequestBody BookingDecisionBatchDto batch) {
+        log.debug("Рассмотрение пачки бронирований [{}], id владельца = [{}]", batch, ownerId);
+        return bookingService.decideBookings(ownerId, batch.getDecisions());
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getById(@RequestHeader("X-Sharer-User-Id") long requesterId,
                               @PathVariable long bookingId) {
@@ -41,19 +72,77 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getBookingsByBookerIdWithFilter(@RequestHeader("X-Sharer-User-Id") long bookerId,
-                                            @RequestParam(name = "state", defaultValue = "ALL") BookingState state) {
-        log.debug("Получение всех своих бронирований со статусом для фильтрации = [{}] заказчиком с id = [{}]",
-                state, bookerId);
-        return bookingService.getBookingsByBookerIdWithFilter(bookerId, state);
+    public ResponseEntity<List<BookingDto>> getBookingsByBookerIdWithFilter(
+            @RequestHeader("X-Sharer-User-Id") long bookerId,
+            @RequestParam(name = "state", defaultValue = "ALL") BookingState state,
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeEnd,
+            @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
+        BookingFilter filter = new BookingFilter(state, status, itemId, rangeStart, rangeEnd);
+        log.debug("Получение своих бронирований с фильтром = [{}] заказчиком с id = [{}], " +
+                "from = [{}], size = [{}], cursor = [{}]", filter, bookerId, from, size, cursor);
+        return toResponse(bookingService.getBookingsByBookerIdWithFilter(bookerId, filter, from, size, cursor));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsByOwnerIdWithFilter(@RequestHeader("X-Sharer-User-Id") long ownerId,
-                                            @RequestParam(name = "state", defaultValue = "ALL") BookingState state) {
-        log.debug("Получение всех своих бронирований со статусом для фильтрации = [{}] владельцем с id = [{}]",
-                state, ownerId);
-        return bookingService.getBookingsByOwnerIdWithFilter(ownerId, state);
+    public ResponseEntity<List<BookingDto>> getBookingsByOwnerIdWithFilter(
+            @RequestHeader("X-Sharer-User-Id") long ownerId,
+            @RequestParam(name = "state", defaultValue = "ALL") BookingState state,
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeEnd,
+            @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
+        BookingFilter filter = new BookingFilter(state, status, itemId, rangeStart, rangeEnd);
+        log.debug("Получение своих бронирований с фильтром = [{}] владельцем с id = [{}], " +
+                "from = [{}], size = [{}], cursor = [{}]", filter, ownerId, from, size, cursor);
+        return toResponse(bookingService.getBookingsByOwnerIdWithFilter(ownerId, filter, from, size, cursor));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByOwnerId(
+            @RequestHeader("X-Sharer-User-Id") long ownerId,
+            @RequestParam(name = "state", defaultValue = "ALL") BookingState state,
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeEnd,
+            @RequestParam(defaultValue = "CSV") BookingExportFormat format) {
+        BookingFilter filter = new BookingFilter(state, status, itemId, rangeStart, rangeEnd);
+        log.debug("Выгрузка бронирований с фильтром = [{}] владельцем с id = [{}] в формате {}",
+                filter, ownerId, format);
+        StreamingResponseBody body = bookingExportService.exportBookingsByOwnerId(ownerId, filter, format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("bookings." + format.getExtension()).build().toString())
+                .body(body);
+    }
+
+    @GetMapping("/counts")
+    public BookingCountsDto countBookingsByBookerId(@RequestHeader("X-Sharer-User-Id") long bookerId) {
+        log.debug("Получение количества бронирований по статусам для фильтрации заказчиком с id = [{}]", bookerId);
+        return bookingService.countBookingsByBookerId(bookerId);
+    }
+
+    @GetMapping("/owner/counts")
+    public BookingCountsDto countBookingsByOwnerId(@RequestHeader("X-Sharer-User-Id") long ownerId) {
+        log.debug("Получение количества бронирований по статусам для фильтрации владельцем с id = [{}]", ownerId);
+        return bookingService.countBookingsByOwnerId(ownerId);
+    }
+
+    private ResponseEntity<List<BookingDto>> toResponse(BookingPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
     }
 
 }
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.server.booking;
+
+public interface BookingExpiryService {
+
+    int expireWaiting();
+}
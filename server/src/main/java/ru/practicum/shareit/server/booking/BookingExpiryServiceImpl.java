@@ -0,0 +1,70 @@
+package ru.practicum.shareit.server.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.server.config.DatabaseProperties;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Отклоняет бронирования, которые владелец так и не рассмотрел до их начала.
+ * <p>
+ * Просроченные бронирования выбираются пачками по возрастанию id, каждая пачка переводится в REJECTED одним
+ * UPDATE в своей транзакции. На Postgres строки пачки блокируются через {@code FOR UPDATE SKIP LOCKED}, поэтому
+ * несколько экземпляров сервера разбирают разные строки и не ждут друг друга.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingExpiryServiceImpl implements BookingExpiryService {
+
+    static final String EXPIRED_METRIC = "shareit.bookings.expired";
+
+    private final BookingRepository bookingRepository;
+    private final BookingProperties bookingProperties;
+    private final DatabaseProperties databaseProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    @Scheduled(fixedDelayString = "${shareit.booking.expiry-delay:60000}",
+            initialDelayString = "${shareit.booking.expiry-delay:60000}")
+    public int expireWaiting() {
+        LocalDateTime now = LocalDateTime.now();
+        int batchSize = bookingProperties.getExpiryBatchSize();
+        long afterId = 0;
+        int expired = 0;
+        ExpiryBatch batch;
+        do {
+            long lastId = afterId;
+            batch = transactionTemplate.execute(status -> expireBatch(now, lastId, batchSize));
+            afterId = batch.lastId();
+            expired += batch.expired();
+        } while (batch.selected() == batchSize);
+        if (expired > 0) {
+            meterRegistry.counter(EXPIRED_METRIC).increment(expired);
+            log.info("Отклонено {} просроченных бронирований в статусе WAITING", expired);
+        }
+        return expired;
+    }
+
+    private ExpiryBatch expireBatch(LocalDateTime now, long afterId, int batchSize) {
+        List<Long> bookingIds = databaseProperties.isPostgres()
+                ? bookingRepository.lockExpiredWaiting(now, afterId, batchSize)
+                : bookingRepository.findExpiredWaiting(now, afterId, Limit.of(batchSize));
+        if (bookingIds.isEmpty()) {
+            return new ExpiryBatch(afterId, 0, 0);
+        }
+        int expired = bookingRepository.rejectWaiting(bookingIds);
+        return new ExpiryBatch(bookingIds.get(bookingIds.size() - 1), bookingIds.size(), expired);
+    }
+
+    private record ExpiryBatch(long lastId, int selected, int expired) {
+    }
+}
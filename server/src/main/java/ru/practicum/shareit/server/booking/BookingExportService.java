@@ -0,0 +1,9 @@
+package ru.practicum.shareit.server.booking;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.server.booking.enums.BookingExportFormat;
+
+public interface BookingExportService {
+
+    StreamingResponseBody exportBookingsByOwnerId(Long ownerId, BookingFilter filter, BookingExportFormat format);
+}
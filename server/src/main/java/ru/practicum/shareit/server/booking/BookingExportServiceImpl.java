@@ -0,0 +1,101 @@
+package ru.practicum.shareit.server.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.server.booking.enums.BookingExportFormat;
+import ru.practicum.shareit.server.exception.ForbiddenExcepton;
+import ru.practicum.shareit.server.user.UserRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Выгружает всю историю бронирований владельца в CSV или NDJSON.
+ * <p>
+ * Проверки выполняются сразу, а строки пишутся в ответ уже после возврата из контроллера: они читаются
+ * курсором порциями по {@code shareit.booking.export-fetch-size} в отдельной транзакции и сразу уходят в
+ * выходной поток. Память не зависит от длины истории.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingExportServiceImpl implements BookingExportService {
+
+    static final String CSV_HEADER = "id,start,end,status,itemId,itemName,bookerId,bookerName,bookerEmail";
+
+    private final UserRepository userRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingProperties bookingProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public StreamingResponseBody exportBookingsByOwnerId(Long ownerId, BookingFilter filter,
+                                                         BookingExportFormat format) {
+        if (userRepository.findById(ownerId).isEmpty()) {
+            throw new ForbiddenExcepton("Пользователь с id " + ownerId + " не найден");
+        }
+        Specification<Booking> specification = BookingSpecifications.ownedBy(ownerId)
+                .and(BookingSpecifications.matching(filter, LocalDateTime.now()));
+        return outputStream -> transactionTemplate.executeWithoutResult(status -> {
+            try {
+                long written = write(specification, format, outputStream);
+                log.debug("Выгружено {} бронирований владельца с id = [{}] в формате {}", written, ownerId, format);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private long write(Specification<Booking> specification, BookingExportFormat format,
+                       OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        long written = 0;
+        try (Stream<BookingRow> rows = bookingRepository.streamRows(specification,
+                bookingProperties.getExportFetchSize())) {
+            if (format == BookingExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            Iterator<BookingRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                BookingRow row = iterator.next();
+                writer.write(format == BookingExportFormat.CSV ? toCsv(row)
+                        : objectMapper.writeValueAsString(BookingMapper.toBookingDto(row)));
+                writer.write('\n');
+                written++;
+            }
+        }
+        writer.flush();
+        return written;
+    }
+
+    private static String toCsv(BookingRow row) {
+        return String.join(",", String.valueOf(row.id()), String.valueOf(row.start()), String.valueOf(row.end()),
+                row.status().name(), String.valueOf(row.itemId()), csvField(row.itemName()),
+                String.valueOf(row.bookerId()), csvField(row.bookerName()), csvField(row.bookerEmail()));
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.server.booking;
+
+import ru.practicum.shareit.server.booking.enums.BookingState;
+import ru.practicum.shareit.server.booking.enums.Status;
+
+import java.time.LocalDateTime;
+
+/**
+ * Условия выборки списка бронирований. Незаданные условия не ограничивают выборку, период
+ * [{@code rangeStart}, {@code rangeEnd}) отбирает бронирования, которые с ним пересекаются.
+ */
+public record BookingFilter(BookingState state,
+                            Status status,
+                            Long itemId,
+                            LocalDateTime rangeStart,
+                            LocalDateTime rangeEnd) {
+
+    public static BookingFilter of(BookingState state) {
+        return new BookingFilter(state, null, null, null, null);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.server.booking;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface BookingFilterRepository {
+
+    default List<BookingRow> findRows(Specification<Booking> specification, Limit limit) {
+        return findRows(specification, 0, limit);
+    }
+
+    /**
+     * Пропускает первые offset строк на стороне базы, чтобы в память попадала только сама страница.
+     */
+    List<BookingRow> findRows(Specification<Booking> specification, int offset, Limit limit);
+
+    /**
+     * Отдает строки по мере чтения из курсора JDBC, не собирая выборку в памяти. Поток нужно закрыть,
+     * и читать его можно только внутри транзакции.
+     */
+    Stream<BookingRow> streamRows(Specification<Booking> specification, int fetchSize);
+}
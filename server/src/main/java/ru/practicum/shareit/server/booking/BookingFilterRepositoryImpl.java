@@ -0,0 +1,69 @@
+package ru.practicum.shareit.server.booking;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.server.item.Item;
+import ru.practicum.shareit.server.user.User;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Выполняет выборку строк {@link BookingRow} по составному условию одним запросом, новые бронирования первыми.
+ * <p>
+ * Значения условий передаются параметрами, поэтому запросы одной формы дают один и тот же SQL. Hibernate
+ * переиспользует для них план из кэша ({@code hibernate.criteria.plan_cache_enabled}), а драйвер —
+ * подготовленный запрос.
+ * <p>
+ * Выгрузка читает ту же выборку через {@link #streamRows}: курсор с фиксированным fetch size держит в памяти
+ * одну порцию строк, а проекция не оседает в контексте персистентности, сколько бы строк ни прошло.
+ */
+public class BookingFilterRepositoryImpl implements BookingFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingRow> findRows(Specification<Booking> specification, int offset, Limit limit) {
+        TypedQuery<BookingRow> query = createRowsQuery(specification).setFirstResult(offset);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public Stream<BookingRow> streamRows(Specification<Booking> specification, int fetchSize) {
+        return createRowsQuery(specification)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private TypedQuery<BookingRow> createRowsQuery(Specification<Booking> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingRow> query = cb.createQuery(BookingRow.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Join<Booking, User> booker = booking.join("booker");
+        query.select(cb.construct(BookingRow.class,
+                booking.get("id"), booking.get("start"), booking.get("end"), booking.get("status"),
+                item.get("id"), item.get("name"), item.get("description"), item.get("available"),
+                item.get("requestId"), booker.get("id"), booker.get("name"), booker.get("email")));
+        Predicate predicate = specification.toPredicate(booking, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.desc(booking.get("start")), cb.desc(booking.get("id")));
+        return entityManager.createQuery(query);
+    }
+}
@@ -2,11 +2,14 @@ package ru.practicum.shareit.server.booking;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import ru.practicum.shareit.server.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.server.booking.dto.BookingDto;
 import ru.practicum.shareit.server.item.Item;
 import ru.practicum.shareit.server.item.ItemMapper;
+import ru.practicum.shareit.server.item.dto.ItemDto;
 import ru.practicum.shareit.server.user.User;
 import ru.practicum.shareit.server.user.UserMapper;
+import ru.practicum.shareit.server.user.dto.UserDto;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -32,14 +35,39 @@ public class BookingMapper {
         booking.setStart(bookingDto.getStart());
         booking.setEnd(bookingDto.getEnd());
         booking.setItem(item);
+        booking.setOwnerId(item.getOwner().getId());
         booking.setBooker(booker);
         booking.setStatus(bookingDto.getStatus());
         return booking;
     }
 
-    public static List<BookingDto> toBookingDtoList(List<Booking> bookings) {
-        return bookings.stream()
+    public static BookingDto toBookingDto(BookingRow row) {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setId(row.id());
+        bookingDto.setStart(row.start());
+        bookingDto.setEnd(row.end());
+        bookingDto.setItemId(row.itemId());
+        bookingDto.setItem(new ItemDto(row.itemId(), row.itemName(), row.itemDescription(), row.itemAvailable(),
+                row.itemRequestId(), null));
+        bookingDto.setBooker(new UserDto(row.bookerId(), row.bookerName(), row.bookerEmail()));
+        bookingDto.setStatus(row.status());
+        return bookingDto;
+    }
+
+    public static BookingDto toBookingDto(DecidedBooking booking) {
+        return toBookingDto(new BookingRow(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                booking.getItemId(), booking.getItemName(), booking.getItemDescription(), booking.getItemAvailable(),
+                booking.getItemRequestId(), booking.getBookerId(), booking.getBookerName(), booking.getBookerEmail()));
+    }
+
+    public static List<BookingDto> toBookingDtoList(List<BookingRow> rows) {
+        return rows.stream()
                 .map(BookingMapper::toBookingDto)
                 .collect(Collectors.toList());
     }
+
+    public static BookingCountsDto toBookingCountsDto(BookingStateCounts counts) {
+        return new BookingCountsDto(counts.getAll(), counts.getCurrent(), counts.getPast(), counts.getFuture(),
+                counts.getWaiting(), counts.getRejected());
+    }
 }
@@ -0,0 +1,204 @@
+package ru.practicum.shareit.server.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.server.config.DatabaseProperties;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Секционирует таблицу bookings по месяцам start_date на Postgres.
+ * <p>
+ * При старте обычная таблица один раз заменяется секционированной, строки переносятся в секцию по умолчанию.
+ * Обслуживание по расписанию создаёт месячные секции на {@code months-ahead} месяцев вперёд и для месяцев,
+ * чьи строки лежат в секции по умолчанию, перенося эти строки в новую секцию. Если задан
+ * {@code detach-after-months}, секции старше этого срока отсоединяются и остаются отдельными архивными таблицами.
+ * <p>
+ * Ограничение исключения на пересечение подтверждённых бронирований Postgres не позволяет объявить на
+ * секционированной таблице, поэтому оно создаётся на каждой секции. Пересечения бронирований из соседних секций
+ * база не видит, их отсекает {@link BookingServiceImpl}: при включённом секционировании подтверждение идёт под
+ * advisory-блокировкой вещи, общей для всех узлов. Первичный ключ секционированной таблицы включает start_date,
+ * поэтому уникальность id держит таблица booking_ids, которую ведёт триггер.
+ * <p>
+ * Перевод таблицы и обслуживание запускаются на каждом узле, поэтому каждый шаг идёт в своей транзакции под
+ * общей advisory-блокировкой и заново проверяет состояние базы. Ошибка одного месяца пишется в лог и не
+ * останавливает обслуживание остальных.
+ */
+@Slf4j
+@Component
+public class BookingPartitionManager {
+
+    static final String PARTITION_PREFIX = "bookings_p";
+    static final String ARCHIVE_PREFIX = "bookings_archive_p";
+    private static final String DEFAULT_PARTITION = "bookings_default";
+    private static final String ID_REGISTRY = "booking_ids";
+    private static final String MAINTENANCE_LOCK = "bookings_partitions";
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("uuuu_MM");
+    private static final Resource CONVERSION_SCRIPT = new ClassPathResource("bookings-partitioning-postgresql.sql");
+
+    private final BookingPartitionProperties partitionProperties;
+    private final DatabaseProperties databaseProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+
+    @Autowired
+    public BookingPartitionManager(BookingPartitionProperties partitionProperties,
+                                   DatabaseProperties databaseProperties,
+                                   TransactionTemplate transactionTemplate,
+                                   JdbcTemplate jdbcTemplate) {
+        this(partitionProperties, databaseProperties, transactionTemplate, jdbcTemplate, Clock.systemDefaultZone());
+    }
+
+    BookingPartitionManager(BookingPartitionProperties partitionProperties,
+                            DatabaseProperties databaseProperties,
+                            TransactionTemplate transactionTemplate,
+                            JdbcTemplate jdbcTemplate,
+                            Clock clock) {
+        this.partitionProperties = partitionProperties;
+        this.databaseProperties = databaseProperties;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void partitionOnStartup() {
+        if (!isActive()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            lockMaintenance();
+            if (!isPartitioned()) {
+                jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                    ScriptUtils.executeSqlScript(connection, CONVERSION_SCRIPT);
+                    return null;
+                });
+                log.info("Таблица bookings переведена на секционирование по месяцам start_date");
+            }
+        });
+        maintain();
+    }
+
+    @Scheduled(cron = "${shareit.booking.partitions.maintenance-cron:0 0 3 * * *}")
+    public void maintain() {
+        if (!isActive() || !isPartitioned()) {
+            return;
+        }
+        YearMonth current = YearMonth.now(clock);
+        SortedSet<YearMonth> existing = findPartitionMonths();
+        SortedSet<YearMonth> wanted = new TreeSet<>(findDefaultPartitionMonths());
+        for (int i = 0; i <= partitionProperties.getMonthsAhead(); i++) {
+            wanted.add(current.plusMonths(i));
+        }
+        wanted.removeAll(existing);
+        for (YearMonth month : wanted) {
+            runLocked(month, () -> {
+                if (!findPartitionMonths().contains(month)) {
+                    createPartition(month);
+                }
+            });
+        }
+
+        if (partitionProperties.getDetachAfterMonths() > 0) {
+            YearMonth oldestKept = current.minusMonths(partitionProperties.getDetachAfterMonths());
+            for (YearMonth month : existing.headSet(oldestKept)) {
+                runLocked(month, () -> {
+                    if (findPartitionMonths().contains(month)) {
+                        detachPartition(month);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Выполняет шаг обслуживания в отдельной транзакции под блокировкой, общей для всех узлов. Действие должно
+     * само проверить, не выполнил ли его уже другой узел.
+     */
+    private void runLocked(YearMonth month, Runnable action) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                lockMaintenance();
+                action.run();
+            });
+        } catch (DataAccessException e) {
+            log.warn("Не удалось обслужить секцию бронирований за {}", month, e);
+        }
+    }
+
+    private void lockMaintenance() {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(hashtext(?), 0)", MAINTENANCE_LOCK);
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = PARTITION_PREFIX + month.format(MONTH_SUFFIX);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE bookings INCLUDING DEFAULTS)");
+        jdbcTemplate.execute("ALTER TABLE " + partition + " ADD CONSTRAINT ex_bookings_item_approved_period_"
+                + month.format(MONTH_SUFFIX) + " EXCLUDE USING GIST "
+                + "(item_id WITH =, tsrange(start_date, end_date) WITH &&) WHERE (status = 'APPROVED')");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                + " WHERE start_date >= ? AND start_date < ? RETURNING *) "
+                + "INSERT INTO " + partition + " SELECT * FROM moved", from.atStartOfDay(), to.atStartOfDay());
+        // Удаление из секции по умолчанию сняло id с учёта, а вставка в неприсоединённую секцию триггер не вызывает
+        jdbcTemplate.execute("INSERT INTO " + ID_REGISTRY + " (id) SELECT id FROM " + partition);
+        jdbcTemplate.execute("ALTER TABLE bookings ATTACH PARTITION " + partition
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        log.info("Создана секция {} бронирований, перенесено из секции по умолчанию: {}", partition, moved);
+    }
+
+    private void detachPartition(YearMonth month) {
+        String partition = PARTITION_PREFIX + month.format(MONTH_SUFFIX);
+        String archive = ARCHIVE_PREFIX + month.format(MONTH_SUFFIX);
+        jdbcTemplate.execute("ALTER TABLE bookings DETACH PARTITION " + partition);
+        jdbcTemplate.execute("ALTER TABLE " + partition + " RENAME TO " + archive);
+        log.info("Секция {} бронирований отсоединена и сохранена как {}", partition, archive);
+    }
+
+    private boolean isActive() {
+        return partitionProperties.isEnabled() && databaseProperties.isPostgres();
+    }
+
+    private boolean isPartitioned() {
+        return "p".equals(jdbcTemplate.queryForObject(
+                "SELECT c.relkind FROM pg_class c WHERE c.oid = to_regclass('bookings')", String.class));
+    }
+
+    private SortedSet<YearMonth> findPartitionMonths() {
+        List<String> partitions = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass('bookings')", String.class);
+        SortedSet<YearMonth> months = new TreeSet<>();
+        for (String partition : partitions) {
+            if (partition.startsWith(PARTITION_PREFIX)) {
+                months.add(YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), MONTH_SUFFIX));
+            }
+        }
+        return months;
+    }
+
+    private List<YearMonth> findDefaultPartitionMonths() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT CAST(date_trunc('month', start_date) AS date) FROM "
+                        + DEFAULT_PARTITION, LocalDate.class).stream()
+                .map(YearMonth::from)
+                .toList();
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.server.booking;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "shareit.booking.partitions")
+public class BookingPartitionProperties {
+
+    private boolean enabled = false;
+
+    private int monthsAhead = 3;
+
+    private int detachAfterMonths = 0;
+
+}
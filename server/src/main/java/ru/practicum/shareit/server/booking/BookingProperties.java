@@ -0,0 +1,30 @@
+package ru.practicum.shareit.server.booking;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "shareit.booking")
+public class BookingProperties {
+
+    private int lockStripes = 256;
+
+    private Duration lockTimeout = Duration.ofSeconds(5);
+
+    private int maxPageSize = 100;
+
+    private int expiryBatchSize = 500;
+
+    private int exportFetchSize = 500;
+
+    private int maxDecisionBatchSize = 100;
+
+    private int maxCreateBatchSize = 100;
+
+    private int summaryRefreshBatchSize = 500;
+
+}
@@ -1,37 +1,163 @@
 package ru.practicum.shareit.server.booking;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.server.booking.enums.Status;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingFilterRepository,
+        BookingBatchRepository {
 
-    List<Booking> findByBookerIdOrderByStartDesc(Long bookerId);
+    String STATE_COUNTS = "SELECT COUNT(*) AS \"all\", " +
+            "COALESCE(SUM(CASE WHEN b.start_date < :now AND b.end_date > :now THEN 1 ELSE 0 END), 0) AS \"current\", " +
+            "COALESCE(SUM(CASE WHEN b.start_date < :now AND b.end_date < :now THEN 1 ELSE 0 END), 0) AS \"past\", " +
+            "COALESCE(SUM(CASE WHEN b.start_date > :now THEN 1 ELSE 0 END), 0) AS \"future\", " +
+            "COALESCE(SUM(CASE WHEN b.status = 'WAITING' THEN 1 ELSE 0 END), 0) AS \"waiting\", " +
+            "COALESCE(SUM(CASE WHEN b.status = 'REJECTED' THEN 1 ELSE 0 END), 0) AS \"rejected\" " +
+            "FROM bookings b ";
 
-    List<Booking> findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long bookerId, LocalDateTime now1, LocalDateTime now2);
+    String WAITING_OF_OWNER = "b.id = :bookingId AND b.status = 'WAITING' AND b.owner_id = :ownerId";
 
-    List<Booking> findByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime now);
+    String NO_APPROVED_OVERLAP = " AND NOT EXISTS (SELECT 1 FROM bookings o WHERE o.item_id = b.item_id " +
+            "AND o.status = 'APPROVED' AND o.id <> b.id AND o.start_date < b.end_date AND o.end_date > b.start_date)";
 
-    List<Booking> findByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime now);
+    String APPROVE_IF_WAITING = "UPDATE bookings b SET status = 'APPROVED' WHERE " +
+            WAITING_OF_OWNER + NO_APPROVED_OVERLAP;
 
-    List<Booking> findByBookerIdAndStatusOrderByStartDesc(Long bookerId, Status status);
+    String REJECT_IF_WAITING = "UPDATE bookings b SET status = 'REJECTED' WHERE " + WAITING_OF_OWNER;
 
-    List<Booking> findByItemOwnerIdOrderByStartDesc(Long ownerId);
+    String DECIDED_BOOKING_SOURCES = " FROM items i, users u WHERE i.id = b.item_id AND u.id = b.booker_id AND ";
 
-    List<Booking> findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long ownerId, LocalDateTime now1, LocalDateTime now2);
+    String RETURNING_DECIDED_BOOKING = " RETURNING b.id AS \"id\", b.start_date AS \"start\", " +
+            "b.end_date AS \"end\", b.status AS \"status\", i.id AS \"itemId\", i.name AS \"itemName\", " +
+            "i.description AS \"itemDescription\", i.available AS \"itemAvailable\", " +
+            "i.request_id AS \"itemRequestId\", u.id AS \"bookerId\", u.name AS \"bookerName\", " +
+            "u.email AS \"bookerEmail\"";
 
-    List<Booking> findByItemOwnerIdAndEndBeforeOrderByStartDesc(Long ownerId, LocalDateTime now);
-
-    List<Booking> findByItemOwnerIdAndStartAfterOrderByStartDesc(Long ownerId, LocalDateTime now);
-
-    List<Booking> findByItemOwnerIdAndStatusOrderByStartDesc(Long ownerId, Status status);
+    @Override
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findById(Long id);
 
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     List<Booking> findByItemIdIn(List<Long> itemIds);
 
+    @Query(value = STATE_COUNTS + "WHERE b.booker_id = :bookerId", nativeQuery = true)
+    BookingStateCounts countBookerStates(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now);
+
+    @Query(value = STATE_COUNTS + "WHERE b.owner_id = :ownerId", nativeQuery = true)
+    BookingStateCounts countOwnerStates(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT nb.item_id AS \"itemId\", nb.past AS \"past\", " +
+            "nb.start_date AS \"startDate\", nb.end_date AS \"endDate\" " +
+            "FROM (SELECT b.item_id, b.start_date, b.end_date, " +
+            "CASE WHEN b.start_date <= :now THEN TRUE ELSE FALSE END AS past, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id, CASE WHEN b.start_date <= :now THEN 1 ELSE 0 END " +
+            "ORDER BY CASE WHEN b.start_date <= :now THEN b.start_date END DESC, b.start_date) AS rn " +
+            "FROM bookings b WHERE b.item_id IN (:itemIds)) nb " +
+            "WHERE nb.rn = 1",
+            nativeQuery = true)
+    List<NearestBooking> findNearestBookings(@Param("itemIds") Collection<Long> itemIds,
+                                             @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT i.id AS \"itemId\", TRUE AS \"past\", " +
+            "l.start_date AS \"startDate\", l.end_date AS \"endDate\" " +
+            "FROM items i CROSS JOIN LATERAL (SELECT b.start_date, b.end_date FROM bookings b " +
+            "WHERE b.item_id = i.id AND b.start_date <= :now ORDER BY b.start_date DESC LIMIT 1) l " +
+            "WHERE i.id IN (:itemIds) " +
+            "UNION ALL " +
+            "SELECT i.id, FALSE, n.start_date, n.end_date " +
+            "FROM items i CROSS JOIN LATERAL (SELECT b.start_date, b.end_date FROM bookings b " +
+            "WHERE b.item_id = i.id AND b.start_date > :now ORDER BY b.start_date LIMIT 1) n " +
+            "WHERE i.id IN (:itemIds)",
+            nativeQuery = true)
+    List<NearestBooking> findNearestBookingsByIndex(@Param("itemIds") Collection<Long> itemIds,
+                                                    @Param("now") LocalDateTime now);
+
+    @Query("SELECT COUNT(b) > 0 FROM Booking b " +
+            "WHERE b.item.id = :itemId AND b.status = ru.practicum.shareit.server.booking.enums.Status.APPROVED " +
+            "AND b.start < :end AND b.end > :start AND (:bookingId IS NULL OR b.id <> :bookingId)")
+    boolean existsApprovedOverlap(@Param("itemId") Long itemId,
+                                  @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end,
+                                  @Param("bookingId") Long bookingId);
+
+    @Query("SELECT b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking b " +
+            "WHERE b.item.id IN :itemIds AND b.status = ru.practicum.shareit.server.booking.enums.Status.APPROVED " +
+            "AND b.start < :to AND b.end > :from")
+    List<BookingPeriod> findApprovedPeriods(@Param("itemIds") Collection<Long> itemIds,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Transactional
+    @Query(value = APPROVE_IF_WAITING, nativeQuery = true)
+    int approveIfWaiting(@Param("bookingId") Long bookingId, @Param("ownerId") Long ownerId);
+
+    @Modifying
+    @Transactional
+    @Query(value = REJECT_IF_WAITING, nativeQuery = true)
+    int rejectIfWaiting(@Param("bookingId") Long bookingId, @Param("ownerId") Long ownerId);
+
+    @Transactional
+    @Query(value = "UPDATE bookings b SET status = 'APPROVED'" + DECIDED_BOOKING_SOURCES +
+            WAITING_OF_OWNER + NO_APPROVED_OVERLAP + RETURNING_DECIDED_BOOKING,
+            nativeQuery = true)
+    Optional<DecidedBooking> approveIfWaitingReturning(@Param("bookingId") Long bookingId,
+                                                       @Param("ownerId") Long ownerId);
+
+    @Transactional
+    @Query(value = "UPDATE bookings b SET status = 'REJECTED'" + DECIDED_BOOKING_SOURCES +
+            WAITING_OF_OWNER + RETURNING_DECIDED_BOOKING,
+            nativeQuery = true)
+    Optional<DecidedBooking> rejectIfWaitingReturning(@Param("bookingId") Long bookingId,
+                                                      @Param("ownerId") Long ownerId);
+
+    @Query("SELECT new ru.practicum.shareit.server.booking.BookingRow(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.description, i.available, i.requestId, u.id, u.name, u.email) " +
+            "FROM Booking b JOIN b.item i JOIN b.booker u WHERE b.id = :bookingId")
+    Optional<BookingRow> findRowById(@Param("bookingId") Long bookingId);
+
+    @Query("SELECT b.item.id FROM Booking b WHERE b.id = :bookingId")
+    Optional<Long> findItemIdById(@Param("bookingId") Long bookingId);
+
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.ownerId AS ownerId, b.status AS status " +
+            "FROM Booking b WHERE b.id IN :bookingIds")
+    List<DecisionTarget> findDecisionTargets(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Query(value = "SELECT b.id FROM bookings b " +
+            "WHERE b.status = 'WAITING' AND b.start_date <= :now AND b.id > :afterId " +
+            "ORDER BY b.id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockExpiredWaiting(@Param("now") LocalDateTime now,
+                                  @Param("afterId") long afterId,
+                                  @Param("limit") int limit);
+
+    @Query("SELECT b.id FROM Booking b " +
+            "WHERE b.status = ru.practicum.shareit.server.booking.enums.Status.WAITING " +
+            "AND b.start <= :now AND b.id > :afterId ORDER BY b.id")
+    List<Long> findExpiredWaiting(@Param("now") LocalDateTime now,
+                                  @Param("afterId") long afterId,
+                                  Limit limit);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.server.booking.enums.Status.REJECTED " +
+            "WHERE b.id IN :bookingIds AND b.status = ru.practicum.shareit.server.booking.enums.Status.WAITING")
+    int rejectWaiting(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Query("SELECT b.status FROM Booking b WHERE b.id = :bookingId")
+    Optional<Status> findStatusById(@Param("bookingId") Long bookingId);
+
     Optional<Booking> findByBookerIdAndItemId(Long bookerId, Long itemId);
 
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     List<Booking> findByItemId(Long itemId);
 }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.server.booking;
+
+import ru.practicum.shareit.server.booking.enums.Status;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка бронирований: только те колонки бронирования, вещи и заказчика, которые попадают в {@code BookingDto}.
+ * Собирается конструктором прямо в JPQL-запросе, поэтому не попадает в контекст персистентности.
+ */
+public record BookingRow(Long id,
+                         LocalDateTime start,
+                         LocalDateTime end,
+                         Status status,
+                         Long itemId,
+                         String itemName,
+                         String itemDescription,
+                         Boolean itemAvailable,
+                         Long itemRequestId,
+                         Long bookerId,
+                         String bookerName,
+                         String bookerEmail) {
+}
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.server.booking;
 
+import ru.practicum.shareit.server.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.server.booking.dto.BookingDto;
-import ru.practicum.shareit.server.booking.enums.BookingState;
+import ru.practicum.shareit.server.booking.dto.BookingPageDto;
 
 import java.util.List;
 
@@ -9,12 +12,22 @@ public interface BookingService {
 
     BookingDto create(Long bookerId, BookingDto bookingDto);
 
+    List<BookingDto> createBatch(Long bookerId, List<BookingDto> bookingDtos);
+
     BookingDto approveOrRejectBooking(Long ownerId, Long bookingId, Boolean isApproved);
 
+    List<BookingDecisionResultDto> decideBookings(Long ownerId, List<BookingDecisionDto> decisions);
+
     BookingDto getById(Long requesterId, Long bookingId);
 
-    List<BookingDto> getBookingsByBookerIdWithFilter(Long bookerId, BookingState state);
+    BookingPageDto getBookingsByBookerIdWithFilter(Long bookerId, BookingFilter filter,
+                                                   Integer from, Integer size, String cursor);
+
+    BookingCountsDto countBookingsByBookerId(Long bookerId);
+
+    BookingCountsDto countBookingsByOwnerId(Long ownerId);
 
-    List<BookingDto> getBookingsByOwnerIdWithFilter(Long ownerId, BookingState state);
+    BookingPageDto getBookingsByOwnerIdWithFilter(Long ownerId, BookingFilter filter,
+                                                  Integer from, Integer size, String cursor);
 
 }
\ No newline at end of file
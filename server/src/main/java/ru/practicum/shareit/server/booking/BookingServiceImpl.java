@@ -1,10 +1,19 @@
 package ru.practicum.shareit.server.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.server.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.server.booking.dto.BookingDto;
-import ru.practicum.shareit.server.booking.enums.BookingState;
+import ru.practicum.shareit.server.booking.dto.BookingPageDto;
+import ru.practicum.shareit.server.booking.enums.BookingDecisionOutcome;
 import ru.practicum.shareit.server.booking.enums.Status;
+import ru.practicum.shareit.server.config.DatabaseProperties;
+import ru.practicum.shareit.server.exception.BookingConflictException;
 import ru.practicum.shareit.server.exception.ForbiddenExcepton;
 import ru.practicum.shareit.server.exception.NotFoundException;
 import ru.practicum.shareit.server.exception.ValidationException;
@@ -14,16 +23,33 @@ import ru.practicum.shareit.server.user.User;
 import ru.practicum.shareit.server.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
 
+    private static final String APPROVED_OVERLAP_CONSTRAINT = "ex_bookings_item_approved_period";
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final ItemLockManager itemLockManager;
+    private final BookingProperties bookingProperties;
+    private final DatabaseProperties databaseProperties;
+    private final BookingPartitionProperties partitionProperties;
 
     @Override
     public BookingDto create(Long bookerId, BookingDto bookingDto) {
@@ -35,28 +61,131 @@ public class BookingServiceImpl implements BookingService {
         bookingDto.setStatus(Status.WAITING);
         Booking booking = BookingMapper.toBooking(bookingDto, item, booker);
 
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+        return itemLockManager.withItemLock(item.getId(), () -> {
+            checkApprovedOverlap(booking);
+            Booking savedBooking = bookingRepository.save(booking);
+            itemBookingSummaryService.refresh(List.of(item.getId()));
+            return BookingMapper.toBookingDto(savedBooking);
+        });
     }
 
     @Override
-    public BookingDto approveOrRejectBooking(Long ownerId, Long bookingId, Boolean approved) {
-        findUserById(ownerId);
-        Booking booking = findBookingById(bookingId);
-        Item item = booking.getItem();
-        findItemById(item.getId());
+    public List<BookingDto> createBatch(Long bookerId, List<BookingDto> bookingDtos) {
+        User booker = findUserById(bookerId);
+        if (bookingDtos == null || bookingDtos.isEmpty()) {
+            throw new ValidationException("Список бронирований не может быть пустым");
+        }
+        int maxBatchSize = bookingProperties.getMaxCreateBatchSize();
+        if (bookingDtos.size() > maxBatchSize) {
+            throw new ValidationException("За один запрос можно создать не больше " + maxBatchSize + " бронирований");
+        }
+        Set<Long> itemIds = new HashSet<>();
+        for (BookingDto bookingDto : bookingDtos) {
+            if (bookingDto.getItemId() == null || bookingDto.getStart() == null || bookingDto.getEnd() == null
+                    || !bookingDto.getStart().isBefore(bookingDto.getEnd())) {
+                throw new ValidationException("Для каждого бронирования нужно указать вещь и период, "
+                        + "начало которого раньше окончания");
+            }
+            itemIds.add(bookingDto.getItemId());
+        }
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
 
-        if (!item.getOwner().getId().equals(ownerId)) {
-            throw new ValidationException("Согласовывать бронирование может только владелец вещи");
+        List<Booking> bookings = new ArrayList<>(bookingDtos.size());
+        for (BookingDto bookingDto : bookingDtos) {
+            Item item = items.get(bookingDto.getItemId());
+            if (item == null) {
+                throw new NotFoundException("Вещь с id " + bookingDto.getItemId() + " не найдена");
+            }
+            if (!item.getAvailable()) {
+                throw new ValidationException("Вещь с id " + item.getId() + " недоступна для бронирования");
+            }
+            bookingDto.setId(null);
+            bookingDto.setStatus(Status.WAITING);
+            bookings.add(BookingMapper.toBooking(bookingDto, item, booker));
         }
+        checkOverlapsWithinBatch(bookings);
+
+        return itemLockManager.withItemLocks(itemIds, () -> {
+            checkApprovedOverlaps(itemIds, bookings);
+            List<Booking> savedBookings = bookingRepository.saveAll(bookings);
+            itemBookingSummaryService.refresh(itemIds);
+            return savedBookings.stream().map(BookingMapper::toBookingDto).toList();
+        });
+    }
 
-        if (approved) {
-            booking.setStatus(Status.APPROVED);
-        } else {
-            booking.setStatus(Status.REJECTED);
+    /**
+     * Согласует бронирование одним условным UPDATE. На Postgres он же через RETURNING отдает данные для ответа,
+     * на H2 ответ дочитывается вторым запросом. Причина отказа выясняется, только если UPDATE не изменил строку:
+     * неизвестный пользователь (403), нет бронирования (404), не владелец, уже рассмотрено, пересечение.
+     * <p>
+     * В секционированной таблице ограничение {@code ex_bookings_item_approved_period} действует только внутри
+     * месяца, поэтому подтверждение там идет под блокировкой вещи, общей для всех узлов.
+     */
+    @Override
+    public BookingDto approveOrRejectBooking(Long ownerId, Long bookingId, Boolean approved) {
+        Optional<BookingDto> decided;
+        try {
+            decided = itemLockManager.withOwnerLock(ownerId, () -> approved && partitionProperties.isEnabled()
+                    ? approveUnderItemLock(ownerId, bookingId)
+                    : decide(ownerId, bookingId, approved));
+        } catch (DataIntegrityViolationException e) {
+            throw toConflict(bookingId, e);
         }
+        return decided.orElseThrow(() -> explainFailedTransition(ownerId, bookingId));
+    }
 
-        bookingRepository.save(booking);
-        return BookingMapper.toBookingDto(booking);
+    private Optional<BookingDto> approveUnderItemLock(Long ownerId, Long bookingId) {
+        return bookingRepository.findItemIdById(bookingId)
+                .flatMap(itemId -> itemLockManager.withItemLock(itemId, () -> decide(ownerId, bookingId, true)));
+    }
+
+    private Optional<BookingDto> decide(Long ownerId, Long bookingId, boolean approved) {
+        if (databaseProperties.isPostgres()) {
+            Optional<DecidedBooking> decided = approved
+                    ? bookingRepository.approveIfWaitingReturning(bookingId, ownerId)
+                    : bookingRepository.rejectIfWaitingReturning(bookingId, ownerId);
+            return decided.map(BookingMapper::toBookingDto);
+        }
+        int updated = approved
+                ? bookingRepository.approveIfWaiting(bookingId, ownerId)
+                : bookingRepository.rejectIfWaiting(bookingId, ownerId);
+        if (updated == 0) {
+            return Optional.empty();
+        }
+        return bookingRepository.findRowById(bookingId).map(BookingMapper::toBookingDto);
+    }
+
+    @Override
+    public List<BookingDecisionResultDto> decideBookings(Long ownerId, List<BookingDecisionDto> decisions) {
+        findUserById(ownerId);
+        Map<Long, Boolean> approvals = toApprovals(decisions);
+        Map<Long, DecisionTarget> targets = bookingRepository.findDecisionTargets(approvals.keySet()).stream()
+                .collect(Collectors.toMap(DecisionTarget::getId, Function.identity()));
+
+        Map<Long, BookingDecisionResultDto> results = new HashMap<>();
+        List<Long> toApprove = new ArrayList<>();
+        List<Long> toReject = new ArrayList<>();
+        Set<Long> itemIds = new HashSet<>();
+        approvals.forEach((bookingId, approved) -> {
+            DecisionTarget target = targets.get(bookingId);
+            if (target == null) {
+                results.put(bookingId, new BookingDecisionResultDto(bookingId, BookingDecisionOutcome.NOT_FOUND, null));
+            } else if (!ownerId.equals(target.getOwnerId())) {
+                results.put(bookingId, new BookingDecisionResultDto(bookingId, BookingDecisionOutcome.NOT_OWNER, null));
+            } else {
+                (approved ? toApprove : toReject).add(bookingId);
+                itemIds.add(target.getItemId());
+            }
+        });
+
+        if (!itemIds.isEmpty()) {
+            itemLockManager.withOwnerLock(ownerId, () -> itemLockManager.withItemLocks(itemIds, () -> {
+                applyDecisions(ownerId, toApprove, toReject, results);
+                return null;
+            }));
+        }
+        return approvals.keySet().stream().map(results::get).toList();
     }
 
     @Override
@@ -74,71 +203,199 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getBookingsByBookerIdWithFilter(Long bookerId, BookingState state) {
+    public BookingPageDto getBookingsByBookerIdWithFilter(Long bookerId, BookingFilter filter,
+                                                          Integer from, Integer size, String cursor) {
         findUserById(bookerId);
-        List<Booking> bookings;
-        LocalDateTime now = LocalDateTime.now();
-
-        switch (state) {
-            case ALL:
-                bookings = bookingRepository.findByBookerIdOrderByStartDesc(bookerId);
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(bookerId, now, now);
-                break;
-            case PAST:
-                bookings = bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(bookerId, now);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(bookerId, now);
-                break;
-            case WAITING:
-                bookings = bookingRepository.findByBookerIdAndStatusOrderByStartDesc(bookerId, Status.WAITING);
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findByBookerIdAndStatusOrderByStartDesc(bookerId, Status.REJECTED);
-                break;
-            default:
-                throw new ValidationException("Неизвестный статус бронирования: " + state);
-        }
-
-        return BookingMapper.toBookingDtoList(bookings);
+        return findPage(BookingSpecifications.bookedBy(bookerId), filter, from, size, cursor);
+    }
+
+    @Override
+    public BookingPageDto getBookingsByOwnerIdWithFilter(Long ownerId, BookingFilter filter,
+                                                         Integer from, Integer size, String cursor) {
+        findUserById(ownerId);
+        return findPage(BookingSpecifications.ownedBy(ownerId), filter, from, size, cursor);
     }
 
     @Override
-    public List<BookingDto> getBookingsByOwnerIdWithFilter(Long ownerId, BookingState state) {
-        User owner = findUserById(ownerId);
-        if (owner.getItems().isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        List<Booking> bookings;
-        LocalDateTime now = LocalDateTime.now();
-
-        switch (state) {
-            case ALL:
-                bookings = bookingRepository.findByItemOwnerIdOrderByStartDesc(ownerId);
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(ownerId, now, now);
-                break;
-            case PAST:
-                bookings = bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDesc(ownerId, now);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc(ownerId, now);
-                break;
-            case WAITING:
-                bookings = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(ownerId, Status.WAITING);
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(ownerId, Status.REJECTED);
-                break;
-            default:
-                throw new IllegalArgumentException("Неизвестный статус бронирования: " + state);
-        }
-
-        return BookingMapper.toBookingDtoList(bookings);
+    public BookingCountsDto countBookingsByBookerId(Long bookerId) {
+        findUserById(bookerId);
+        return BookingMapper.toBookingCountsDto(bookingRepository.countBookerStates(bookerId, LocalDateTime.now()));
+    }
+
+    @Override
+    public BookingCountsDto countBookingsByOwnerId(Long ownerId) {
+        findUserById(ownerId);
+        return BookingMapper.toBookingCountsDto(bookingRepository.countOwnerStates(ownerId, LocalDateTime.now()));
+    }
+
+    private BookingPageDto findPage(Specification<Booking> party, BookingFilter filter,
+                                    Integer from, Integer size, String cursor) {
+        validatePaging(from, size);
+        int offset = from == null ? 0 : from;
+        Specification<Booking> specification = party
+                .and(BookingSpecifications.matching(filter, LocalDateTime.now()))
+                .and(BookingSpecifications.after(BookingCursor.decode(cursor)));
+        if (size == null) {
+            List<BookingRow> bookings = bookingRepository.findRows(specification, offset, Limit.unlimited());
+            return new BookingPageDto(BookingMapper.toBookingDtoList(bookings), null);
+        }
+        int pageSize = Math.min(size, bookingProperties.getMaxPageSize());
+        List<BookingRow> bookings = bookingRepository.findRows(specification, offset, Limit.of(pageSize + 1));
+        return toBookingPage(bookings, pageSize);
+    }
+
+    private void validatePaging(Integer from, Integer size) {
+        if (from != null && from < 0) {
+            throw new ValidationException("Параметр from не может быть отрицательным");
+        }
+        if (size != null && size <= 0) {
+            throw new ValidationException("Параметр size должен быть положительным");
+        }
+    }
+
+    private BookingPageDto toBookingPage(List<BookingRow> bookings, int pageSize) {
+        if (bookings.size() <= pageSize) {
+            return new BookingPageDto(BookingMapper.toBookingDtoList(bookings), null);
+        }
+        List<BookingRow> page = bookings.subList(0, pageSize);
+        String nextCursor = BookingCursor.after(page.get(page.size() - 1)).encode();
+        return new BookingPageDto(BookingMapper.toBookingDtoList(page), nextCursor);
+    }
+
+    private Map<Long, Boolean> toApprovals(List<BookingDecisionDto> decisions) {
+        if (decisions == null || decisions.isEmpty()) {
+            throw new ValidationException("Список решений по бронированиям не может быть пустым");
+        }
+        int maxBatchSize = bookingProperties.getMaxDecisionBatchSize();
+        if (decisions.size() > maxBatchSize) {
+            throw new ValidationException("За один запрос можно рассмотреть не больше " + maxBatchSize
+                    + " бронирований");
+        }
+        Map<Long, Boolean> approvals = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            if (decision.getBookingId() == null || decision.getApproved() == null) {
+                throw new ValidationException("Для каждого решения нужно указать bookingId и approved");
+            }
+            if (approvals.put(decision.getBookingId(), decision.getApproved()) != null) {
+                throw new ValidationException("Бронирование с id " + decision.getBookingId()
+                        + " указано несколько раз");
+            }
+        }
+        return approvals;
+    }
+
+    private void applyDecisions(Long ownerId, List<Long> toApprove, List<Long> toReject,
+                                Map<Long, BookingDecisionResultDto> results) {
+        int[] approved;
+        int[] rejected;
+        try {
+            approved = bookingRepository.approveAllIfWaiting(toApprove, ownerId);
+            rejected = bookingRepository.rejectAllIfWaiting(toReject, ownerId);
+        } catch (DataIntegrityViolationException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            if (message != null && message.contains(APPROVED_OVERLAP_CONSTRAINT)) {
+                throw new BookingConflictException("Подтверждаемые бронирования пересекаются с уже подтвержденными");
+            }
+            throw e;
+        }
+        List<Long> failed = new ArrayList<>();
+        collectResults(toApprove, approved, BookingDecisionOutcome.APPROVED, Status.APPROVED, results, failed);
+        collectResults(toReject, rejected, BookingDecisionOutcome.REJECTED, Status.REJECTED, results, failed);
+        if (failed.isEmpty()) {
+            return;
+        }
+        for (DecisionTarget target : bookingRepository.findDecisionTargets(failed)) {
+            BookingDecisionOutcome outcome;
+            if (!ownerId.equals(target.getOwnerId())) {
+                outcome = BookingDecisionOutcome.NOT_OWNER;
+            } else if (target.getStatus() == Status.WAITING) {
+                outcome = BookingDecisionOutcome.CONFLICT;
+            } else {
+                outcome = BookingDecisionOutcome.ALREADY_DECIDED;
+            }
+            Status status = outcome == BookingDecisionOutcome.NOT_OWNER ? null : target.getStatus();
+            results.put(target.getId(), new BookingDecisionResultDto(target.getId(), outcome, status));
+        }
+        // Бронирование могли удалить между выборкой целей и обновлением
+        for (Long bookingId : failed) {
+            results.putIfAbsent(bookingId,
+                    new BookingDecisionResultDto(bookingId, BookingDecisionOutcome.NOT_FOUND, null));
+        }
+    }
+
+    private static void collectResults(List<Long> bookingIds, int[] updated, BookingDecisionOutcome outcome,
+                                       Status status, Map<Long, BookingDecisionResultDto> results,
+                                       List<Long> failed) {
+        for (int i = 0; i < bookingIds.size(); i++) {
+            Long bookingId = bookingIds.get(i);
+            if (updated[i] > 0) {
+                results.put(bookingId, new BookingDecisionResultDto(bookingId, outcome, status));
+            } else {
+                failed.add(bookingId);
+            }
+        }
+    }
+
+    private static void checkOverlapsWithinBatch(List<Booking> bookings) {
+        Map<Long, List<Booking>> byItem = bookings.stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        for (List<Booking> itemBookings : byItem.values()) {
+            itemBookings.sort(Comparator.comparing(Booking::getStart));
+            for (int i = 1; i < itemBookings.size(); i++) {
+                if (itemBookings.get(i).getStart().isBefore(itemBookings.get(i - 1).getEnd())) {
+                    throw new ValidationException("Бронирования вещи с id " + itemBookings.get(i).getItem().getId()
+                            + " в запросе пересекаются между собой");
+                }
+            }
+        }
+    }
+
+    private void checkApprovedOverlaps(Set<Long> itemIds, List<Booking> bookings) {
+        LocalDateTime from = bookings.stream().map(Booking::getStart).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = bookings.stream().map(Booking::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+        Map<Long, List<BookingPeriod>> approved = bookingRepository.findApprovedPeriods(itemIds, from, to).stream()
+                .collect(Collectors.groupingBy(BookingPeriod::getItemId));
+        for (Booking booking : bookings) {
+            for (BookingPeriod period : approved.getOrDefault(booking.getItem().getId(), List.of())) {
+                if (period.getStart().isBefore(booking.getEnd()) && period.getEnd().isAfter(booking.getStart())) {
+                    throw new BookingConflictException("Вещь с id " + booking.getItem().getId()
+                            + " уже забронирована на эти даты");
+                }
+            }
+        }
+    }
+
+    private void checkApprovedOverlap(Booking booking) {
+        if (bookingRepository.existsApprovedOverlap(booking.getItem().getId(),
+                booking.getStart(), booking.getEnd(), booking.getId())) {
+            throw new BookingConflictException("Вещь с id " + booking.getItem().getId()
+                    + " уже забронирована на эти даты");
+        }
+    }
+
+    private RuntimeException explainFailedTransition(Long ownerId, Long bookingId) {
+        if (!userRepository.existsById(ownerId)) {
+            return new ForbiddenExcepton("Пользователь с id " + ownerId + " не найден");
+        }
+        Booking booking = findBookingById(bookingId);
+        if (!booking.getItem().getOwner().getId().equals(ownerId)) {
+            return new ValidationException("Согласовывать бронирование может только владелец вещи");
+        }
+        if (booking.getStatus() != Status.WAITING) {
+            return new BookingConflictException("Бронирование с id " + bookingId
+                    + " уже рассмотрено, текущий статус: " + booking.getStatus());
+        }
+        return new BookingConflictException("Вещь с id " + booking.getItem().getId()
+                + " уже забронирована на эти даты");
+    }
+
+    private RuntimeException toConflict(Long bookingId, DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        if (message != null && message.contains(APPROVED_OVERLAP_CONSTRAINT)) {
+            return new BookingConflictException("Вещь с id " + findBookingById(bookingId).getItem().getId()
+                    + " уже забронирована на эти даты");
+        }
+        return e;
     }
 
     private User findUserById(Long userId) {
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.server.booking;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.server.booking.enums.BookingState;
+import ru.practicum.shareit.server.booking.enums.Status;
+import ru.practicum.shareit.server.exception.ValidationException;
+
+import java.time.LocalDateTime;
+
+/**
+ * Условия на бронирования для {@link BookingFilterRepository}. Для незаданного значения фабрики возвращают
+ * {@code null}, и {@link Specification#and} просто пропускает такое условие.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BookingSpecifications {
+
+    public static Specification<Booking> bookedBy(Long bookerId) {
+        return (booking, query, cb) -> cb.equal(booking.get("booker").get("id"), bookerId);
+    }
+
+    public static Specification<Booking> ownedBy(Long ownerId) {
+        return (booking, query, cb) -> cb.equal(booking.get("ownerId"), ownerId);
+    }
+
+    public static Specification<Booking> matching(BookingFilter filter, LocalDateTime now) {
+        if (filter.rangeStart() != null && filter.rangeEnd() != null
+                && !filter.rangeStart().isBefore(filter.rangeEnd())) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
+        }
+        return Specification.where(inState(filter.state(), now))
+                .and(hasStatus(filter.status()))
+                .and(forItem(filter.itemId()))
+                .and(overlaps(filter.rangeStart(), filter.rangeEnd()));
+    }
+
+    public static Specification<Booking> inState(BookingState state, LocalDateTime now) {
+        if (state == null) {
+            return null;
+        }
+        return switch (state) {
+            case ALL -> null;
+            case CURRENT -> (booking, query, cb) -> cb.and(
+                    cb.lessThan(booking.get("start"), now),
+                    cb.greaterThan(booking.get("end"), now));
+            case PAST -> (booking, query, cb) -> cb.and(
+                    cb.lessThan(booking.get("start"), now),
+                    cb.lessThan(booking.get("end"), now));
+            case FUTURE -> (booking, query, cb) -> cb.greaterThan(booking.get("start"), now);
+            case WAITING -> hasStatus(Status.WAITING);
+            case REJECTED -> hasStatus(Status.REJECTED);
+        };
+    }
+
+    public static Specification<Booking> hasStatus(Status status) {
+        if (status == null) {
+            return null;
+        }
+        return (booking, query, cb) -> cb.equal(booking.get("status"), status);
+    }
+
+    public static Specification<Booking> forItem(Long itemId) {
+        if (itemId == null) {
+            return null;
+        }
+        return (booking, query, cb) -> cb.equal(booking.get("item").get("id"), itemId);
+    }
+
+    public static Specification<Booking> overlaps(LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        Specification<Booking> startsBeforeEnd = rangeEnd == null ? null
+                : (booking, query, cb) -> cb.lessThan(booking.get("start"), rangeEnd);
+        Specification<Booking> endsAfterStart = rangeStart == null ? null
+                : (booking, query, cb) -> cb.greaterThan(booking.get("end"), rangeStart);
+        return Specification.where(startsBeforeEnd).and(endsAfterStart);
+    }
+
+    public static Specification<Booking> after(BookingCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return (booking, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(booking.get("start"), cursor.start()),
+                cb.or(cb.lessThan(booking.get("start"), cursor.start()),
+                        cb.and(cb.equal(booking.get("start"), cursor.start()),
+                                cb.lessThan(booking.get("id"), cursor.id()))));
+    }
+}
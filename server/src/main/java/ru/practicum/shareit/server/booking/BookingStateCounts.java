@@ -0,0 +1,16 @@
+package ru.practicum.shareit.server.booking;
+
+public interface BookingStateCounts {
+
+    Long getAll();
+
+    Long getCurrent();
+
+    Long getPast();
+
+    Long getFuture();
+
+    Long getWaiting();
+
+    Long getRejected();
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.server.booking;
+
+import ru.practicum.shareit.server.booking.enums.Status;
+
+import java.time.LocalDateTime;
+
+public interface DecidedBooking {
+
+    Long getId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+    Status getStatus();
+
+    Long getItemId();
+
+    String getItemName();
+
+    String getItemDescription();
+
+    Boolean getItemAvailable();
+
+    Long getItemRequestId();
+
+    Long getBookerId();
+
+    String getBookerName();
+
+    String getBookerEmail();
+}
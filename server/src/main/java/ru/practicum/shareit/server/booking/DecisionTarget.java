@@ -0,0 +1,14 @@
+package ru.practicum.shareit.server.booking;
+
+import ru.practicum.shareit.server.booking.enums.Status;
+
+public interface DecisionTarget {
+
+    Long getId();
+
+    Long getItemId();
+
+    Long getOwnerId();
+
+    Status getStatus();
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.server.booking;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ItemBookingSummaryService {
+
+    void create(Long itemId);
+
+    void refresh(Collection<Long> itemIds);
+
+    int refreshDue();
+
+    Map<Long, ItemBookingSummary> getByItemIds(Collection<Long> itemIds);
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.server.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.server.config.DatabaseProperties;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemBookingSummaryServiceImpl implements ItemBookingSummaryService {
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+    private final DatabaseProperties databaseProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingProperties bookingProperties;
+
+    @Override
+    public void create(Long itemId) {
+        summaryRepository.save(new ItemBookingSummary(itemId));
+    }
+
+    @Override
+    @Transactional
+    public void refresh(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        Map<Long, ItemBookingSummary> summaries = summaryRepository.findAllByIdForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        for (Long itemId : itemIds) {
+            summaries.computeIfAbsent(itemId, ItemBookingSummary::new);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<NearestBooking> nearestBookings = databaseProperties.isPostgres()
+                ? bookingRepository.findNearestBookingsByIndex(summaries.keySet(), now)
+                : bookingRepository.findNearestBookings(summaries.keySet(), now);
+        for (ItemBookingSummary summary : summaries.values()) {
+            summary.setLastStart(null);
+            summary.setLastEnd(null);
+            summary.setNextStart(null);
+            summary.setNextEnd(null);
+        }
+        for (NearestBooking booking : nearestBookings) {
+            ItemBookingSummary summary = summaries.get(booking.getItemId());
+            if (Boolean.TRUE.equals(booking.getPast())) {
+                summary.setLastStart(booking.getStartDate());
+                summary.setLastEnd(booking.getEndDate());
+            } else {
+                summary.setNextStart(booking.getStartDate());
+                summary.setNextEnd(booking.getEndDate());
+            }
+        }
+        for (ItemBookingSummary summary : summaries.values()) {
+            summary.setRefreshAt(summary.getNextStart());
+        }
+        summaryRepository.saveAll(summaries.values());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${shareit.booking.summary-refresh-delay:60000}")
+    public int refreshDue() {
+        int refreshBatchSize = bookingProperties.getSummaryRefreshBatchSize();
+        int refreshed = 0;
+        List<Long> dueItemIds;
+        do {
+            dueItemIds = summaryRepository.findDueItemIds(LocalDateTime.now(), Limit.of(refreshBatchSize));
+            if (!dueItemIds.isEmpty()) {
+                List<Long> batch = dueItemIds;
+                transactionTemplate.executeWithoutResult(status -> refresh(batch));
+                refreshed += dueItemIds.size();
+            }
+        } while (dueItemIds.size() == refreshBatchSize);
+        if (refreshed > 0) {
+            log.debug("Обновлены последнее и следующее бронирования для {} вещей", refreshed);
+        }
+        return refreshed;
+    }
+
+    @Override
+    public Map<Long, ItemBookingSummary> getByItemIds(Collection<Long> itemIds) {
+        return summaryRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+    }
+}
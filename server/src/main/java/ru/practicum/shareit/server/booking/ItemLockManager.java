@@ -0,0 +1,138 @@
+package ru.practicum.shareit.server.booking;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.server.config.DatabaseProperties;
+import ru.practicum.shareit.server.exception.BookingConflictException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет операции с бронированиями одной вещи по очереди.
+ * <p>
+ * Внутри узла id вещи отображается на один из фиксированного набора страйпов {@link ReentrantLock}.
+ * На Postgres дополнительно берется advisory-блокировка транзакции, она защищает от других узлов.
+ * Страйп освобождается только после фиксации транзакции.
+ */
+@Component
+public class ItemLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final ReentrantLock[] ownerStripes;
+    private final long lockTimeoutMillis;
+    private final DatabaseProperties databaseProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ItemLockManager(BookingProperties bookingProperties,
+                           DatabaseProperties databaseProperties,
+                           TransactionTemplate transactionTemplate,
+                           JdbcTemplate jdbcTemplate) {
+        int size = Integer.highestOneBit(Math.max(1, bookingProperties.getLockStripes() - 1)) << 1;
+        this.stripes = newStripes(size);
+        this.ownerStripes = newStripes(size);
+        this.lockTimeoutMillis = bookingProperties.getLockTimeout().toMillis();
+        this.databaseProperties = databaseProperties;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Выполняет действие под страйпом владельца, без транзакции и без обращения к базе. Согласования
+     * бронирований одного владельца внутри узла идут по очереди, между узлами подтвержденные пересечения
+     * отсекает ограничение {@code ex_bookings_item_approved_period}, а в секционированной таблице — блокировка
+     * вещи, которую подтверждение берет внутри этой. Страйпы владельцев берутся раньше страйпов
+     * вещей, поэтому их можно вкладывать в {@link #withItemLocks}.
+     */
+    public <T> T withOwnerLock(Long ownerId, Supplier<T> action) {
+        ReentrantLock lock = ownerStripes[stripeIndex(ownerId)];
+        acquire(lock, "Бронирования владельца с id " + ownerId
+                        + " сейчас согласуются другим запросом, повторите попытку",
+                "Ожидание блокировки владельца с id " + ownerId + " прервано");
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> T withItemLock(Long itemId, Supplier<T> action) {
+        return withItemLocks(List.of(itemId), action);
+    }
+
+    /**
+     * Выполняет действие в одной транзакции под блокировками всех вещей. Блокировки берутся по возрастанию,
+     * поэтому пересекающиеся пачки не образуют взаимной блокировки.
+     */
+    public <T> T withItemLocks(Collection<Long> itemIds, Supplier<T> action) {
+        List<Long> sortedItemIds = itemIds.stream().distinct().sorted().toList();
+        SortedMap<Integer, Long> stripeOwners = new TreeMap<>();
+        for (Long itemId : sortedItemIds) {
+            stripeOwners.putIfAbsent(stripeIndex(itemId), itemId);
+        }
+        List<ReentrantLock> acquired = new ArrayList<>(stripeOwners.size());
+        try {
+            for (Map.Entry<Integer, Long> stripe : stripeOwners.entrySet()) {
+                Long itemId = stripe.getValue();
+                acquire(stripes[stripe.getKey()], "Вещь с id " + itemId
+                        + " сейчас бронируется другим запросом, повторите попытку",
+                        "Ожидание блокировки вещи с id " + itemId + " прервано");
+                acquired.add(stripes[stripe.getKey()]);
+            }
+            return transactionTemplate.execute(status -> {
+                if (databaseProperties.isPostgres()) {
+                    for (Long itemId : sortedItemIds) {
+                        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", itemId);
+                    }
+                }
+                return action.get();
+            });
+        } finally {
+            for (int i = acquired.size() - 1; i >= 0; i--) {
+                acquired.get(i).unlock();
+            }
+        }
+    }
+
+    private void acquire(ReentrantLock lock, String busyMessage, String interruptedMessage) {
+        try {
+            if (!lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new BookingConflictException(busyMessage);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingConflictException(interruptedMessage);
+        }
+    }
+
+    ReentrantLock stripeFor(Long itemId) {
+        return stripes[stripeIndex(itemId)];
+    }
+
+    ReentrantLock ownerStripeFor(Long ownerId) {
+        return ownerStripes[stripeIndex(ownerId)];
+    }
+
+    private static ReentrantLock[] newStripes(int size) {
+        ReentrantLock[] locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private int stripeIndex(Long id) {
+        int hash = Long.hashCode(id);
+        hash ^= hash >>> 16;
+        return hash & (stripes.length - 1);
+    }
+}
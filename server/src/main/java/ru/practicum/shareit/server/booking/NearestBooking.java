@@ -0,0 +1,14 @@
+package ru.practicum.shareit.server.booking;
+
+import java.time.LocalDateTime;
+
+public interface NearestBooking {
+
+    Long getItemId();
+
+    Boolean getPast();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+}
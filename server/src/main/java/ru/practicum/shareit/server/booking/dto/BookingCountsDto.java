@@ -0,0 +1,24 @@
+package ru.practicum.shareit.server.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingCountsDto {
+
+    private Long all;
+
+    private Long current;
+
+    private Long past;
+
+    private Long future;
+
+    private Long waiting;
+
+    private Long rejected;
+
+}
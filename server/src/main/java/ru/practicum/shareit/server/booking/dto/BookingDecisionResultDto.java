@@ -0,0 +1,20 @@
+package ru.practicum.shareit.server.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.server.booking.enums.BookingDecisionOutcome;
+import ru.practicum.shareit.server.booking.enums.Status;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingDecisionResultDto {
+
+    private Long bookingId;
+
+    private BookingDecisionOutcome outcome;
+
+    private Status status;
+
+}
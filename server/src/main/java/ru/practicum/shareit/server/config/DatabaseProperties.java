@@ -0,0 +1,14 @@
+package ru.practicum.shareit.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "shareit.db")
+public class DatabaseProperties {
+
+    private boolean postgres = false;
+
+}
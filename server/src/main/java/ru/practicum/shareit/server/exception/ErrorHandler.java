@@ -30,6 +30,12 @@ public class ErrorHandler {
         return new ErrorResponse("Дублирование информации", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleBookingConflict(final BookingConflictException e) {
+        return new ErrorResponse("Конфликт бронирований", e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidation(final ValidationException e) {
@@ -1,12 +1,15 @@
 package ru.practicum.shareit.server.item;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    @EntityGraph(Comment.WITH_AUTHOR)
     List<Comment> findByItemId(Long itemId);
 
+    @EntityGraph(Comment.WITH_AUTHOR)
     List<Comment> findByItemIdIn(List<Long> itemIds);
 }
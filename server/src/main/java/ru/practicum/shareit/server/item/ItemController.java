@@ -2,12 +2,16 @@ package ru.practicum.shareit.server.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.server.item.dto.CommentDto;
 import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.dto.ItemSearchPageDto;
 import ru.practicum.shareit.server.item.dto.ItemUpdateDto;
 import ru.practicum.shareit.server.item.dto.ItemWithBookingsDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -16,6 +20,8 @@ import java.util.List;
 @RequestMapping("/items")
 public class ItemController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ItemService itemService;
 
     @PostMapping
@@ -47,9 +53,31 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> getAllItemsByText(@RequestParam String text) {
-        log.debug("Получение всех доступных вещей по подстроке = [{}]", text);
-        return itemService.getAllItemsByText(text);
+    public ResponseEntity<List<ItemDto>> getAllItemsByText(@RequestParam String text,
+                                                           @RequestParam(required = false) Integer limit,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "false") boolean fuzzy,
+                                                           @RequestParam(required = false)
+                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                           LocalDateTime start,
+                                                           @RequestParam(required = false)
+                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                           LocalDateTime end) {
+        log.debug("Получение доступных вещей по подстроке = [{}], limit = [{}], cursor = [{}], fuzzy = [{}], " +
+                "свободных с [{}] по [{}]", text, limit, cursor, fuzzy, start, end);
+        ItemSearchPageDto page = itemService.getAllItemsByText(text, limit, cursor, fuzzy, start, end);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggestNames(@RequestParam String prefix,
+                                     @RequestParam(required = false) Integer limit) {
+        log.debug("Получение подсказок названий вещей по префиксу = [{}]", prefix);
+        return itemService.suggestNames(prefix, limit);
     }
 
     @PostMapping("/{itemId}/comment")
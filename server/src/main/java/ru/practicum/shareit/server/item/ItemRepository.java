@@ -1,13 +1,20 @@
 package ru.practicum.shareit.server.item;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.server.booking.enums.Status;
+import ru.practicum.shareit.server.item.search.ItemText;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    @EntityGraph(Item.WITH_OWNER)
     List<Item> findByOwnerId(Long ownerId);
 
     @Query("SELECT i FROM Item i WHERE (LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) " +
@@ -15,8 +22,48 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "AND i.available = true")
     List<Item> searchByText(@Param("text") String text);
 
+    @Query(value = "SELECT i.* FROM items i " +
+            "WHERE i.available = true " +
+            "AND i.search_vector @@ websearch_to_tsquery('shareit_ru_en', :text) " +
+            "ORDER BY ts_rank(i.search_vector, websearch_to_tsquery('shareit_ru_en', :text)) DESC",
+            nativeQuery = true)
+    List<Item> searchByFullText(@Param("text") String text);
+
+    @Query(value = "SELECT q.query FROM unnest(string_to_array(:queries, chr(31))) AS q(query) " +
+            "JOIN items i ON i.id = :itemId " +
+            "WHERE i.search_vector @@ websearch_to_tsquery('shareit_ru_en', q.query)",
+            nativeQuery = true)
+    List<String> findFullTextQueriesMatchingItem(@Param("itemId") long itemId, @Param("queries") String queries);
+
+    @Query("SELECT new ru.practicum.shareit.server.item.search.ItemText(i.id, i.name, i.description) " +
+            "FROM Item i WHERE i.available = true AND i.id > :afterId ORDER BY i.id")
+    List<ItemText> findAvailableItemTexts(@Param("afterId") long afterId, Limit limit);
+
+    List<Item> findByIdInAndAvailableTrue(Collection<Long> ids);
+
+    @Query(value = "SELECT i.id FROM items i " +
+            "WHERE i.id IN (:ids) AND i.available = true " +
+            "AND NOT EXISTS (SELECT 1 FROM bookings b " +
+            "WHERE b.item_id = i.id AND b.status IN ('APPROVED', 'WAITING') " +
+            "AND tsrange(b.start_date, b.end_date) && tsrange(CAST(:start AS timestamp), CAST(:end AS timestamp)))",
+            nativeQuery = true)
+    List<Long> findFreeItemIdsByRange(@Param("ids") Collection<Long> ids,
+                                      @Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end);
+
+    @Query("SELECT i.id FROM Item i " +
+            "WHERE i.id IN :ids AND i.available = true " +
+            "AND NOT EXISTS (SELECT b.id FROM Booking b " +
+            "WHERE b.item = i AND b.status IN :statuses AND b.start < :end AND b.end > :start)")
+    List<Long> findFreeItemIds(@Param("ids") Collection<Long> ids,
+                               @Param("statuses") Collection<Status> statuses,
+                               @Param("start") LocalDateTime start,
+                               @Param("end") LocalDateTime end);
+
+    @EntityGraph(Item.WITH_OWNER)
     List<Item> findByRequestIdIn(List<Long> requestIds);
 
+    @EntityGraph(Item.WITH_OWNER)
     List<Item> findByRequestId(Long requestId);
 
 }
@@ -3,9 +3,11 @@ package ru.practicum.shareit.server.item;
 
 import ru.practicum.shareit.server.item.dto.CommentDto;
 import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.dto.ItemSearchPageDto;
 import ru.practicum.shareit.server.item.dto.ItemUpdateDto;
 import ru.practicum.shareit.server.item.dto.ItemWithBookingsDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -18,7 +20,10 @@ public interface ItemService {
 
     List<ItemWithBookingsDto> getAllItemsByOwnerWithBookings(Long ownerId);
 
-    List<ItemDto> getAllItemsByText(String text);
+    ItemSearchPageDto getAllItemsByText(String text, Integer limit, String cursor, boolean fuzzy,
+                                        LocalDateTime start, LocalDateTime end);
+
+    List<String> suggestNames(String prefix, Integer limit);
 
     CommentDto createComment(Long authorId, Long itemId, CommentDto commentDto);
 }
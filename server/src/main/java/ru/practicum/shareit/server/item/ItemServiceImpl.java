@@ -4,34 +4,62 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.server.booking.Booking;
 import ru.practicum.shareit.server.booking.BookingRepository;
+import ru.practicum.shareit.server.booking.ItemBookingSummary;
+import ru.practicum.shareit.server.booking.ItemBookingSummaryService;
 import ru.practicum.shareit.server.booking.dto.BookingShortDto;
+import ru.practicum.shareit.server.booking.enums.Status;
+import ru.practicum.shareit.server.config.DatabaseProperties;
 import ru.practicum.shareit.server.exception.ForbiddenExcepton;
 import ru.practicum.shareit.server.exception.NotFoundException;
 import ru.practicum.shareit.server.exception.ValidationException;
 import ru.practicum.shareit.server.item.dto.CommentDto;
 import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.dto.ItemSearchPageDto;
 import ru.practicum.shareit.server.item.dto.ItemUpdateDto;
 import ru.practicum.shareit.server.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.server.item.search.Bm25Scorer;
+import ru.practicum.shareit.server.item.search.CachedSearch;
+import ru.practicum.shareit.server.item.search.CorpusStats;
+import ru.practicum.shareit.server.item.search.FuzzyMatch;
+import ru.practicum.shareit.server.item.search.ItemSearchCache;
+import ru.practicum.shareit.server.item.search.ItemSearchIndex;
+import ru.practicum.shareit.server.item.search.ItemSearchProperties;
+import ru.practicum.shareit.server.item.search.ItemText;
+import ru.practicum.shareit.server.item.search.SearchCacheKey;
+import ru.practicum.shareit.server.item.search.SearchCursor;
+import ru.practicum.shareit.server.item.search.TopK;
 import ru.practicum.shareit.server.request.ItemRequestRepository;
 import ru.practicum.shareit.server.user.User;
 import ru.practicum.shareit.server.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
 
+    private static final List<Status> BLOCKING_STATUSES = List.of(Status.APPROVED, Status.WAITING);
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchProperties searchProperties;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final DatabaseProperties databaseProperties;
+    private final ItemBookingSummaryService itemBookingSummaryService;
 
     @Override
     public ItemDto create(Long ownerId, ItemDto itemDto) {
@@ -45,6 +73,9 @@ public class ItemServiceImpl implements ItemService {
             }
         }
         Item savedItem = itemRepository.save(item);
+        itemBookingSummaryService.create(savedItem.getId());
+        itemSearchIndex.onItemSaved(savedItem, null);
+        itemSearchCache.onItemSaved(savedItem);
         return ItemMapper.toItemDto(savedItem);
     }
 
@@ -63,6 +94,7 @@ public class ItemServiceImpl implements ItemService {
             return savedItemDto;
         }
 
+        ItemText previous = new ItemText(item.getId(), item.getName(), item.getDescription());
         if (updates.getName() != null) {
             item.setName(updates.getName());
         }
@@ -73,6 +105,8 @@ public class ItemServiceImpl implements ItemService {
             item.setAvailable(updates.getAvailable());
         }
         Item savedItem = itemRepository.save(item);
+        itemSearchIndex.onItemSaved(savedItem, previous);
+        itemSearchCache.onItemSaved(savedItem);
         List<CommentDto> commentsDto = CommentMapper.toCommentDtoList(commentRepository.findByItemId(savedItem.getId()));
         ItemDto savedItemDto = ItemMapper.toItemDto(savedItem);
         savedItemDto.setComments(commentsDto);
@@ -85,8 +119,7 @@ public class ItemServiceImpl implements ItemService {
         Item item = findItemById(itemId);
         findUserById(requesterId);
         if (requesterId.equals(item.getOwner().getId())) {
-            List<Booking> itemBookings = bookingRepository.findByItemId(itemId);
-            return getItemWithBookingsDto(item, itemBookings);
+            return getItemsWithBookingsDto(List.of(item)).get(0);
         } else {
             List<CommentDto> commentsDto = CommentMapper.toCommentDtoList(commentRepository.findByItemId(item.getId()));
             BookingShortDto lastBooking = null;
@@ -103,69 +136,181 @@ public class ItemServiceImpl implements ItemService {
             return Collections.emptyList();
         }
 
+        return getItemsWithBookingsDto(items);
+    }
+
+    private List<ItemWithBookingsDto> getItemsWithBookingsDto(List<Item> items) {
         List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
-        List<Booking> bookings = bookingRepository.findByItemIdIn(itemIds);
-        Map<Long, List<Booking>> bookingsByItem = bookings.stream()
-                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
+        Map<Long, ItemBookingSummary> summaries = itemBookingSummaryService.getByItemIds(itemIds);
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> staleItemIds = summaries.values().stream()
+                .filter(summary -> summary.getRefreshAt() != null && !summary.getRefreshAt().isAfter(now))
+                .map(ItemBookingSummary::getItemId)
+                .collect(Collectors.toList());
+        if (!staleItemIds.isEmpty()) {
+            itemBookingSummaryService.refresh(staleItemIds);
+            summaries = itemBookingSummaryService.getByItemIds(itemIds);
+        }
+        Map<Long, BookingShortDto> lastBookings = new HashMap<>();
+        Map<Long, BookingShortDto> nextBookings = new HashMap<>();
+        for (ItemBookingSummary summary : summaries.values()) {
+            if (summary.getLastStart() != null) {
+                lastBookings.put(summary.getItemId(),
+                        new BookingShortDto(summary.getLastStart(), summary.getLastEnd()));
+            }
+            if (summary.getNextStart() != null) {
+                nextBookings.put(summary.getItemId(),
+                        new BookingShortDto(summary.getNextStart(), summary.getNextEnd()));
+            }
+        }
+
+        Map<Long, List<CommentDto>> commentsByItem = commentRepository.findByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(
+                        comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())
+                ));
 
         return items.stream()
-                .map(item -> {
-                    List<Booking> itemBookings = bookingsByItem.getOrDefault(item.getId(), List.of());
-                    return getItemWithBookingsDto(item, itemBookings);
-                })
+                .map(item -> ItemMapper.toItemWithBookingsDto(item,
+                        lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId()),
+                        commentsByItem.getOrDefault(item.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
-    private ItemWithBookingsDto getItemWithBookingsDto(Item item, List<Booking> itemBookings) {
-
-        BookingShortDto lastBooking = itemBookings.stream()
-                .filter(b -> !b.getStart().isAfter(LocalDateTime.now()))
-                .max(Comparator.comparing(Booking::getStart))
-                .map(b -> new BookingShortDto(b.getStart(), b.getEnd()))
-                .orElse(null);
+    @Override
+    public ItemSearchPageDto getAllItemsByText(String text, Integer limit, String cursor, boolean fuzzy,
+                                               LocalDateTime start, LocalDateTime end) {
+        if (limit != null && limit <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным");
+        }
+        if ((start == null) != (end == null)) {
+            throw new ValidationException("Даты начала и окончания должны быть указаны вместе");
+        }
+        if (start != null && !start.isBefore(end)) {
+            throw new ValidationException("Дата начала должна быть раньше даты окончания");
+        }
+        if (text == null || text.isBlank()) {
+            return new ItemSearchPageDto(Collections.emptyList(), null);
+        }
+        SearchCursor after = cursor == null ? null : SearchCursor.decode(cursor);
+        int maxResults = searchProperties.getMaxResults();
+        int pageSize = limit == null ? maxResults : Math.min(limit, maxResults);
+
+        Optional<SearchCacheKey> cacheKey = start == null ? itemSearchCache.keyOf(text, fuzzy) : Optional.empty();
+        Optional<CachedSearch> cached = cacheKey.flatMap(itemSearchCache::get);
+        if (cached.isPresent()) {
+            return toSearchPage(cached.get().page(after, pageSize + 1), pageSize, Map.of());
+        }
 
-        BookingShortDto nextBooking = itemBookings.stream()
-                .filter(b -> b.getStart().isAfter(LocalDateTime.now()))
-                .min(Comparator.comparing(Booking::getStart))
-                .map(b -> new BookingShortDto(b.getStart(), b.getEnd()))
-                .orElse(null);
+        long generation = itemSearchCache.generation();
+        Optional<FuzzyMatch> fuzzyMatch = fuzzy ? itemSearchIndex.fuzzySearch(text) : Optional.empty();
+        List<Item> foundItems = fuzzyMatch.map(FuzzyMatch::items).orElseGet(() -> findItemsByText(text));
+        if (foundItems.isEmpty()) {
+            return new ItemSearchPageDto(Collections.emptyList(), null);
+        }
 
-        List<CommentDto> commentsDto = CommentMapper.toCommentDtoList(commentRepository.findByItemId(item.getId()));
+        CorpusStats stats = itemSearchIndex.corpusStats().orElse(null);
+        Bm25Scorer scorer = fuzzyMatch
+                .map(match -> Bm25Scorer.of(match.terms(), foundItems, stats, searchProperties.getNameBoost()))
+                .orElseGet(() -> Bm25Scorer.of(text, foundItems, stats, searchProperties.getNameBoost()));
+        Map<Long, Item> itemsById = foundItems.stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        if (cacheKey.isPresent() && fuzzy == fuzzyMatch.isPresent()) {
+            CachedSearch computed = itemSearchCache.put(cacheKey.get(),
+                    TopK.select(foundItems, scorer, foundItems.size()), generation);
+            return toSearchPage(computed.page(after, pageSize + 1), pageSize, itemsById);
+        }
 
-        return ItemMapper.toItemWithBookingsDto(item, lastBooking, nextBooking, commentsDto);
+        List<Item> candidates = start == null ? foundItems : findFreeItems(foundItems, start, end);
+        List<SearchCursor> positions = TopK.select(candidates, scorer, pageSize + 1, after).stream()
+                .map(SearchCursor::after)
+                .collect(Collectors.toList());
+        return toSearchPage(positions, pageSize, itemsById);
     }
 
-    @Override
-    public List<ItemDto> getAllItemsByText(String text) {
-        if (text == null || text.isBlank()) {
-            return Collections.emptyList();
+    private ItemSearchPageDto toSearchPage(List<SearchCursor> positions, int pageSize, Map<Long, Item> knownItems) {
+        String nextCursor = null;
+        if (positions.size() > pageSize) {
+            positions = positions.subList(0, pageSize);
+            nextCursor = positions.get(pageSize - 1).encode();
         }
-        List<Item> foundItems = itemRepository.searchByText(text);
-        if (foundItems.isEmpty()) {
-            return Collections.emptyList();
+        List<Long> pageIds = positions.stream()
+                .map(SearchCursor::id)
+                .collect(Collectors.toList());
+        if (pageIds.isEmpty()) {
+            return new ItemSearchPageDto(Collections.emptyList(), nextCursor);
         }
 
-        List<Long> itemIds = foundItems.stream()
-                .map(Item::getId)
+        List<Long> unknownIds = pageIds.stream()
+                .filter(id -> !knownItems.containsKey(id))
                 .collect(Collectors.toList());
+        Map<Long, Item> items = new HashMap<>(knownItems);
+        if (!unknownIds.isEmpty()) {
+            itemRepository.findAllById(unknownIds).forEach(item -> items.put(item.getId(), item));
+        }
 
-        List<Comment> comments = commentRepository.findByItemIdIn(itemIds);
-
-        Map<Long, List<CommentDto>> commentsByItem = comments.stream()
+        Map<Long, List<CommentDto>> commentsByItem = commentRepository.findByItemIdIn(pageIds).stream()
                 .collect(Collectors.groupingBy(
                         comment -> comment.getItem().getId(),
                         Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())
                 ));
 
-        return foundItems.stream()
-                .map(item -> {
-                    List<CommentDto> itemComments = commentsByItem.getOrDefault(item.getId(), List.of());
-                    ItemDto itemDto = ItemMapper.toItemDto(item);
-                    itemDto.setComments(itemComments);
-                    return itemDto;
-                })
-                .collect(Collectors.toList());
+        List<ItemDto> itemsDto = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            Item item = items.get(id);
+            if (item != null) {
+                ItemDto itemDto = ItemMapper.toItemDto(item);
+                itemDto.setComments(commentsByItem.getOrDefault(id, List.of()));
+                itemsDto.add(itemDto);
+            }
+        }
 
+        return new ItemSearchPageDto(itemsDto, nextCursor);
+    }
+
+    @Override
+    public List<String> suggestNames(String prefix, Integer limit) {
+        if (limit != null && limit <= 0) {
+            throw new ValidationException("Количество подсказок должно быть положительным");
+        }
+        if (prefix == null || prefix.isBlank()) {
+            return Collections.emptyList();
+        }
+        int suggestLimit = searchProperties.getSuggestLimit();
+        return itemSearchIndex.suggest(prefix, limit == null ? suggestLimit : Math.min(limit, suggestLimit));
+    }
+
+    private List<Item> findItemsByText(String text) {
+        switch (searchProperties.getMode()) {
+            case FULL_TEXT:
+                return itemRepository.searchByFullText(text);
+            case TRIGRAM:
+                return itemSearchIndex.search(text);
+            case LIKE:
+                return itemRepository.searchByText(text);
+            default:
+                throw new IllegalStateException("Неизвестный режим поиска: " + searchProperties.getMode());
+        }
+    }
+
+    private List<Item> findFreeItems(List<Item> items, LocalDateTime start, LocalDateTime end) {
+        int batchSize = searchProperties.getBatchSize();
+        Set<Long> freeIds = new HashSet<>();
+        for (int from = 0; from < items.size(); from += batchSize) {
+            List<Long> ids = items.subList(from, Math.min(from + batchSize, items.size())).stream()
+                    .map(Item::getId)
+                    .collect(Collectors.toList());
+            if (databaseProperties.isPostgres()) {
+                freeIds.addAll(itemRepository.findFreeItemIdsByRange(ids, start, end));
+            } else {
+                freeIds.addAll(itemRepository.findFreeItemIds(ids, BLOCKING_STATUSES, start, end));
+            }
+        }
+        return items.stream()
+                .filter(item -> freeIds.contains(item.getId()))
+                .collect(Collectors.toList());
     }
 
     private User findUserById(Long userId) {
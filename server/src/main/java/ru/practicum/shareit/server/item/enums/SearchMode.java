@@ -0,0 +1,7 @@
+package ru.practicum.shareit.server.item.enums;
+
+public enum SearchMode {
+    LIKE,
+    FULL_TEXT,
+    TRIGRAM
+}
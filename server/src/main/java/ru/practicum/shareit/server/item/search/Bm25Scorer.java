@@ -0,0 +1,106 @@
+package ru.practicum.shareit.server.item.search;
+
+import ru.practicum.shareit.server.item.Item;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class Bm25Scorer {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final String[] terms;
+    private final double[] idf;
+    private final double nameBoost;
+    private final double averageNameLength;
+    private final double averageDescriptionLength;
+
+    private Bm25Scorer(String[] terms, double[] idf, double nameBoost, CorpusStats stats) {
+        this.terms = terms;
+        this.idf = idf;
+        this.nameBoost = nameBoost;
+        this.averageNameLength = Math.max(stats.averageNameLength(), 1.0);
+        this.averageDescriptionLength = Math.max(stats.averageDescriptionLength(), 1.0);
+    }
+
+    public static Bm25Scorer of(String query, List<Item> matches, CorpusStats stats, double nameBoost) {
+        return of(Arrays.asList(tokenize(query)), matches, stats, nameBoost);
+    }
+
+    public static Bm25Scorer of(List<String> queryTerms, List<Item> matches, CorpusStats stats, double nameBoost) {
+        if (stats == null) {
+            stats = statsOf(matches);
+        }
+        String[] terms = queryTerms.stream().distinct().toArray(String[]::new);
+        double[] idf = new double[terms.length];
+        long documentCount = Math.max(stats.documentCount(), matches.size());
+        for (int i = 0; i < terms.length; i++) {
+            long df = 0;
+            for (Item item : matches) {
+                if (contains(item.getName(), terms[i]) || contains(item.getDescription(), terms[i])) {
+                    df++;
+                }
+            }
+            idf[i] = Math.log(1.0 + (documentCount - df + 0.5) / (df + 0.5));
+        }
+        return new Bm25Scorer(terms, idf, nameBoost, stats);
+    }
+
+    public double score(Item item) {
+        String name = TrigramIndex.normalize(item.getName());
+        String description = TrigramIndex.normalize(item.getDescription());
+        double nameNorm = 1 - B + B * tokenCount(name) / averageNameLength;
+        double descriptionNorm = 1 - B + B * tokenCount(description) / averageDescriptionLength;
+        double score = 0;
+        for (int i = 0; i < terms.length; i++) {
+            double tf = nameBoost * occurrences(name, terms[i]) / nameNorm
+                    + occurrences(description, terms[i]) / descriptionNorm;
+            if (tf > 0) {
+                score += idf[i] * tf * (K1 + 1) / (tf + K1);
+            }
+        }
+        return score;
+    }
+
+    public static int tokenCount(String text) {
+        return tokenize(text).length;
+    }
+
+    static String[] tokenize(String text) {
+        String normalized = TrigramIndex.normalize(text).strip();
+        if (normalized.isEmpty()) {
+            return new String[0];
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static CorpusStats statsOf(List<Item> items) {
+        long nameTokens = 0;
+        long descriptionTokens = 0;
+        for (Item item : items) {
+            nameTokens += tokenCount(item.getName());
+            descriptionTokens += tokenCount(item.getDescription());
+        }
+        int count = Math.max(items.size(), 1);
+        return new CorpusStats(items.size(), (double) nameTokens / count, (double) descriptionTokens / count);
+    }
+
+    private static boolean contains(String field, String term) {
+        return TrigramIndex.normalize(field).contains(term);
+    }
+
+    private static int occurrences(String field, String term) {
+        int count = 0;
+        int from = field.indexOf(term);
+        while (from >= 0) {
+            count++;
+            from = field.indexOf(term, from + term.length());
+        }
+        return count;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.server.item.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CachedSearch {
+
+    private final long[] ids;
+    private final double[] scores;
+    private final long expiresAt;
+
+    public CachedSearch(List<ScoredItem> ranked, long expiresAt) {
+        this.ids = new long[ranked.size()];
+        this.scores = new double[ranked.size()];
+        for (int i = 0; i < ranked.size(); i++) {
+            ids[i] = ranked.get(i).item().getId();
+            scores[i] = ranked.get(i).score();
+        }
+        this.expiresAt = expiresAt;
+    }
+
+    public List<SearchCursor> page(SearchCursor after, int limit) {
+        int from = 0;
+        if (after != null) {
+            int to = ids.length;
+            while (from < to) {
+                int middle = (from + to) >>> 1;
+                if (after.isBefore(scores[middle], ids[middle])) {
+                    to = middle;
+                } else {
+                    from = middle + 1;
+                }
+            }
+        }
+        List<SearchCursor> page = new ArrayList<>(Math.min(limit, ids.length - from));
+        for (int i = from; i < ids.length && page.size() < limit; i++) {
+            page.add(new SearchCursor(scores[i], ids[i]));
+        }
+        return page;
+    }
+
+    long[] ids() {
+        return ids;
+    }
+
+    boolean isExpired(long now) {
+        return now - expiresAt >= 0;
+    }
+}
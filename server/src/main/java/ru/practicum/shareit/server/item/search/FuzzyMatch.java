@@ -0,0 +1,8 @@
+package ru.practicum.shareit.server.item.search;
+
+import ru.practicum.shareit.server.item.Item;
+
+import java.util.List;
+
+public record FuzzyMatch(List<Item> items, List<String> terms) {
+}
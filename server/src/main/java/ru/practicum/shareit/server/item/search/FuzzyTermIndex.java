@@ -0,0 +1,264 @@
+package ru.practicum.shareit.server.item.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class FuzzyTermIndex {
+
+    private static final char BOUNDARY = '$';
+
+    private final Map<String, Term> terms = new HashMap<>();
+    private final List<Term> termsById = new ArrayList<>();
+    private final Deque<Integer> freeTermIds = new ArrayDeque<>();
+    private final Map<Long, LongPostingList> termsByGram = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Возвращает id термов вещи: по ним ее можно убрать из индекса, не храня исходный текст.
+     */
+    public int[] add(long itemId, String... fields) {
+        Set<String> tokens = distinctTokens(fields);
+        int[] termIds = new int[tokens.size()];
+        int count = 0;
+        lock.writeLock().lock();
+        try {
+            for (String token : tokens) {
+                Term term = termOrCreate(token);
+                term.items.add(itemId);
+                termIds[count++] = term.id;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return termIds;
+    }
+
+    public void remove(long itemId, int[] termIds) {
+        lock.writeLock().lock();
+        try {
+            for (int termId : termIds) {
+                Term term = termsById.get(termId);
+                if (term != null && term.items.remove(itemId) && term.items.isEmpty()) {
+                    dropTerm(term);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId, String... fields) {
+        Set<String> tokens = distinctTokens(fields);
+        lock.writeLock().lock();
+        try {
+            for (String token : tokens) {
+                Term term = terms.get(token);
+                if (term != null && term.items.remove(itemId) && term.items.isEmpty()) {
+                    dropTerm(term);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public FuzzyResult search(String query, int maxExpansions, int maxCandidates) {
+        String[] queryTokens = Arrays.stream(Bm25Scorer.tokenize(query)).distinct().toArray(String[]::new);
+        if (queryTokens.length == 0) {
+            return new FuzzyResult(new long[0], List.of());
+        }
+        lock.readLock().lock();
+        try {
+            List<LongPostingList> perToken = new ArrayList<>(queryTokens.length);
+            List<String> expandedTerms = new ArrayList<>();
+            for (String token : queryTokens) {
+                List<Term> matches = expand(token, maxExpansions, maxCandidates);
+                if (matches.isEmpty()) {
+                    return new FuzzyResult(new long[0], List.of());
+                }
+                LongPostingList union = new LongPostingList();
+                for (Term term : matches) {
+                    expandedTerms.add(term.text);
+                    for (long itemId : term.items.toArray()) {
+                        union.add(itemId);
+                    }
+                }
+                perToken.add(union);
+            }
+            return new FuzzyResult(LongPostingList.intersect(perToken), expandedTerms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int termSlots() {
+        lock.readLock().lock();
+        try {
+            return termsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static boolean matches(String query, String... fields) {
+        Set<String> fieldTokens = distinctTokens(fields);
+        for (String token : Bm25Scorer.tokenize(query)) {
+            int maxEdits = maxEdits(token.length());
+            boolean found = fieldTokens.stream()
+                    .anyMatch(fieldToken -> boundedLevenshtein(token, fieldToken, maxEdits) <= maxEdits);
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int maxEdits(int length) {
+        if (length < 4) {
+            return 0;
+        }
+        return length < 8 ? 1 : 2;
+    }
+
+    static int boundedLevenshtein(String source, String target, int maxDistance) {
+        if (Math.abs(source.length() - target.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previous = new int[target.length() + 1];
+        int[] current = new int[target.length() + 1];
+        for (int j = 0; j <= target.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= source.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= target.length(); j++) {
+                int substitution = previous[j - 1] + (source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j] + 1, current[j - 1] + 1));
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[target.length()];
+    }
+
+    private List<Term> expand(String token, int maxExpansions, int maxCandidates) {
+        int maxEdits = maxEdits(token.length());
+        if (maxEdits == 0) {
+            Term exact = terms.get(token);
+            return exact == null ? List.of() : List.of(exact);
+        }
+        long[] grams = TrigramIndex.trigrams(padded(token));
+        Map<Long, Integer> sharedGrams = new HashMap<>();
+        for (long gram : grams) {
+            LongPostingList termIds = termsByGram.get(gram);
+            if (termIds != null) {
+                for (long termId : termIds.toArray()) {
+                    sharedGrams.merge(termId, 1, Integer::sum);
+                }
+            }
+        }
+        int threshold = Math.max(1, grams.length - TrigramIndex.GRAM_LENGTH * maxEdits);
+        List<Map.Entry<Long, Integer>> candidates = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : sharedGrams.entrySet()) {
+            Term term = termsById.get(entry.getKey().intValue());
+            if (entry.getValue() >= threshold && term != null
+                    && Math.abs(term.text.length() - token.length()) <= maxEdits) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        List<ScoredTerm> verified = new ArrayList<>();
+        for (Map.Entry<Long, Integer> candidate : candidates.subList(0, Math.min(maxCandidates, candidates.size()))) {
+            Term term = termsById.get(candidate.getKey().intValue());
+            int distance = boundedLevenshtein(token, term.text, maxEdits);
+            if (distance <= maxEdits) {
+                verified.add(new ScoredTerm(term, distance));
+            }
+        }
+        verified.sort(Comparator.comparingInt(ScoredTerm::distance)
+                .thenComparingInt(scored -> -scored.term().items.size()));
+        return verified.stream()
+                .limit(maxExpansions)
+                .map(ScoredTerm::term)
+                .toList();
+    }
+
+    private Term termOrCreate(String token) {
+        Term term = terms.get(token);
+        if (term != null) {
+            return term;
+        }
+        Integer freeId = freeTermIds.poll();
+        term = new Term(freeId == null ? termsById.size() : freeId, token);
+        terms.put(token, term);
+        if (freeId == null) {
+            termsById.add(term);
+        } else {
+            termsById.set(freeId, term);
+        }
+        for (long gram : TrigramIndex.trigrams(padded(token))) {
+            termsByGram.computeIfAbsent(gram, key -> new LongPostingList()).add(term.id);
+        }
+        return term;
+    }
+
+    private void dropTerm(Term term) {
+        terms.remove(term.text);
+        termsById.set(term.id, null);
+        freeTermIds.push(term.id);
+        for (long gram : TrigramIndex.trigrams(padded(term.text))) {
+            LongPostingList termIds = termsByGram.get(gram);
+            if (termIds != null && termIds.remove(term.id) && termIds.isEmpty()) {
+                termsByGram.remove(gram);
+            }
+        }
+    }
+
+    private static String padded(String token) {
+        return BOUNDARY + token + BOUNDARY;
+    }
+
+    private static Set<String> distinctTokens(String... fields) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String field : fields) {
+            tokens.addAll(Arrays.asList(Bm25Scorer.tokenize(field)));
+        }
+        return tokens;
+    }
+
+    public record FuzzyResult(long[] itemIds, List<String> terms) {
+    }
+
+    private record ScoredTerm(Term term, int distance) {
+    }
+
+    private static class Term {
+
+        private final int id;
+        private final String text;
+        private final LongPostingList items = new LongPostingList();
+
+        private Term(int id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+}
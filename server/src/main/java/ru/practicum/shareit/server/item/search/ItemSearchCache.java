@@ -0,0 +1,249 @@
+package ru.practicum.shareit.server.item.search;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.server.item.Item;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.item.enums.SearchMode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш ранжированных результатов поиска. Хранит только id вещей и оценки, сами вещи и отзывы читаются
+ * из базы для каждой отдаваемой страницы. Размер ограничен числом записей и общим числом id во всех записях.
+ * Полнотекстовые запросы, затронутые изменением вещи, проверяются в базе одним запросом; если их больше
+ * {@code shareit.search.cache-max-full-text-checks}, они сбрасываются без проверки.
+ * Сброс при изменении вещи действует только внутри одного экземпляра сервера, поэтому при нескольких
+ * экземплярах устаревший результат живет не дольше {@code shareit.search.cache-ttl}.
+ */
+@Slf4j
+@Component
+public class ItemSearchCache {
+
+    public static final String CACHE_NAME = "itemSearch";
+    private static final String FULL_TEXT_QUERY_SEPARATOR = "\u001F";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchProperties searchProperties;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<SearchCacheKey, CachedSearch> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Set<SearchCacheKey>> keysByItem = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private long generation;
+    private long totalIds;
+
+    @Autowired
+    public ItemSearchCache(ItemRepository itemRepository, ItemSearchProperties searchProperties,
+                           MeterRegistry meterRegistry) {
+        this(itemRepository, searchProperties, meterRegistry, System::nanoTime);
+    }
+
+    ItemSearchCache(ItemRepository itemRepository, ItemSearchProperties searchProperties,
+                    MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.itemRepository = itemRepository;
+        this.searchProperties = searchProperties;
+        this.nanoClock = nanoClock;
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tags("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, ItemSearchCache::size)
+                .tags("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    public Optional<SearchCacheKey> keyOf(String text, boolean fuzzy) {
+        if (!searchProperties.isCacheEnabled()) {
+            return Optional.empty();
+        }
+        if (fuzzy) {
+            return Optional.of(new SearchCacheKey(true, String.join(" ", Bm25Scorer.tokenize(text))));
+        }
+        if (searchProperties.getMode() == SearchMode.FULL_TEXT) {
+            return Optional.of(new SearchCacheKey(false, WHITESPACE.matcher(TrigramIndex.normalize(text).strip())
+                    .replaceAll(" ")));
+        }
+        return Optional.of(new SearchCacheKey(false, TrigramIndex.normalize(text)));
+    }
+
+    public long generation() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<CachedSearch> get(SearchCacheKey key) {
+        lock.lock();
+        try {
+            CachedSearch cached = entries.get(key);
+            if (cached != null && cached.isExpired(nanoClock.getAsLong())) {
+                evict(key);
+                cached = null;
+            }
+            if (cached == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(cached);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CachedSearch put(SearchCacheKey key, List<ScoredItem> ranked, long expectedGeneration) {
+        CachedSearch cached = new CachedSearch(ranked, nanoClock.getAsLong() + searchProperties.getCacheTtl().toNanos());
+        if (ranked.size() > searchProperties.getCacheMaxResultIds()) {
+            return cached;
+        }
+        lock.lock();
+        try {
+            if (generation != expectedGeneration) {
+                return cached;
+            }
+            if (entries.containsKey(key)) {
+                evict(key);
+            }
+            entries.put(key, cached);
+            totalIds += cached.ids().length;
+            for (long id : cached.ids()) {
+                keysByItem.computeIfAbsent(id, itemId -> new HashSet<>()).add(key);
+            }
+            Iterator<Map.Entry<SearchCacheKey, CachedSearch>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > searchProperties.getCacheMaxEntries()
+                    || totalIds > searchProperties.getCacheMaxTotalIds()) && eldest.hasNext()) {
+                Map.Entry<SearchCacheKey, CachedSearch> entry = eldest.next();
+                eldest.remove();
+                unlinkItems(entry.getKey(), entry.getValue());
+                evictions.increment();
+            }
+            return cached;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onItemSaved(Item item) {
+        onItemChanged(item.getId(), Boolean.TRUE.equals(item.getAvailable()) ? item : null);
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onItemChanged(long itemId, Item matchable) {
+        List<SearchCacheKey> snapshot;
+        lock.lock();
+        try {
+            generation++;
+            Set<SearchCacheKey> containing = keysByItem.get(itemId);
+            if (containing != null) {
+                new ArrayList<>(containing).forEach(this::evict);
+            }
+            if (matchable == null) {
+                return;
+            }
+            snapshot = new ArrayList<>(entries.keySet());
+        } finally {
+            lock.unlock();
+        }
+        Set<SearchCacheKey> stale = findMatchingKeys(snapshot, matchable);
+        if (stale.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            stale.forEach(this::evict);
+        } finally {
+            lock.unlock();
+        }
+        log.debug("Из кэша поиска вытеснено {} запросов после изменения вещи с id = [{}]", stale.size(), itemId);
+    }
+
+    private Set<SearchCacheKey> findMatchingKeys(List<SearchCacheKey> keys, Item item) {
+        Set<SearchCacheKey> matching = new HashSet<>();
+        List<SearchCacheKey> fullTextKeys = new ArrayList<>();
+        String name = TrigramIndex.normalize(item.getName());
+        String description = TrigramIndex.normalize(item.getDescription());
+        for (SearchCacheKey key : keys) {
+            if (key.fuzzy()) {
+                if (FuzzyTermIndex.matches(key.query(), name, description)) {
+                    matching.add(key);
+                }
+            } else if (searchProperties.getMode() == SearchMode.FULL_TEXT) {
+                fullTextKeys.add(key);
+            } else if (name.contains(key.query()) || description.contains(key.query())) {
+                matching.add(key);
+            }
+        }
+        if (fullTextKeys.size() > searchProperties.getCacheMaxFullTextChecks()) {
+            // Проверка стольких запросов в базе дороже, чем пересчитать их заново
+            matching.addAll(fullTextKeys);
+        } else if (!fullTextKeys.isEmpty()) {
+            String queries = fullTextKeys.stream()
+                    .map(SearchCacheKey::query)
+                    .collect(Collectors.joining(FULL_TEXT_QUERY_SEPARATOR));
+            Set<String> matched = new HashSet<>(itemRepository.findFullTextQueriesMatchingItem(item.getId(), queries));
+            fullTextKeys.stream()
+                    .filter(key -> matched.contains(key.query()))
+                    .forEach(matching::add);
+        }
+        return matching;
+    }
+
+    private void evict(SearchCacheKey key) {
+        CachedSearch removed = entries.remove(key);
+        if (removed != null) {
+            unlinkItems(key, removed);
+            evictions.increment();
+        }
+    }
+
+    private void unlinkItems(SearchCacheKey key, CachedSearch cached) {
+        if (cached == null) {
+            return;
+        }
+        totalIds -= cached.ids().length;
+        for (long id : cached.ids()) {
+            Set<SearchCacheKey> keys = keysByItem.get(id);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByItem.remove(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package ru.practicum.shareit.server.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.server.item.Item;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.item.enums.SearchMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchProperties searchProperties;
+    private final TrigramIndex trigramIndex = new TrigramIndex();
+    private final NamePrefixTrie nameTrie = new NamePrefixTrie();
+    private final FuzzyTermIndex fuzzyIndex = new FuzzyTermIndex();
+    private final LongAdder nameTokens = new LongAdder();
+    private final LongAdder descriptionTokens = new LongAdder();
+
+    private final Map<Long, IndexedItem> indexed = new HashMap<>();
+    private final Map<Long, ItemText> changedWhileLoading = new HashMap<>();
+    private boolean loading;
+
+    private volatile boolean ready;
+
+    /**
+     * Загружает индексы пачками по id. Изменения вещей, пришедшие во время загрузки, не применяются сразу:
+     * их id запоминаются, и после загрузки эти вещи перечитываются из базы, поэтому одна вещь не попадает
+     * в индексы и в статистику BM25 дважды.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            loading = true;
+        }
+        int batchSize = searchProperties.getBatchSize();
+        long lastId = 0;
+        List<ItemText> batch;
+        do {
+            batch = itemRepository.findAvailableItemTexts(lastId, Limit.of(batchSize));
+            synchronized (this) {
+                for (ItemText item : batch) {
+                    if (!changedWhileLoading.containsKey(item.id())) {
+                        put(item.id(), null, item);
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == batchSize);
+        reloadChanged();
+        ready = true;
+        log.info("Индексы поиска вещей загружены, доступных вещей в индексе: {}", corpusStats()
+                .map(CorpusStats::documentCount).orElse(0L));
+    }
+
+    /**
+     * Применяет сохранение вещи. {@code previous} - текст вещи до изменения, для новой вещи {@code null}:
+     * по нему из триграммного индекса убираются старые триграммы, сам текст индекс не хранит.
+     */
+    public synchronized void onItemSaved(Item item, ItemText previous) {
+        if (loading) {
+            if (!changedWhileLoading.containsKey(item.getId())) {
+                changedWhileLoading.put(item.getId(), previous);
+            }
+            return;
+        }
+        put(item.getId(), previous, toItemText(item));
+    }
+
+    private void reloadChanged() {
+        while (true) {
+            Map<Long, ItemText> changed;
+            synchronized (this) {
+                if (changedWhileLoading.isEmpty()) {
+                    loading = false;
+                    return;
+                }
+                changed = new HashMap<>(changedWhileLoading);
+                changedWhileLoading.clear();
+            }
+            Map<Long, Item> current = new HashMap<>();
+            for (Item item : itemRepository.findByIdInAndAvailableTrue(changed.keySet())) {
+                current.put(item.getId(), item);
+            }
+            synchronized (this) {
+                for (Map.Entry<Long, ItemText> entry : changed.entrySet()) {
+                    if (!changedWhileLoading.containsKey(entry.getKey())) {
+                        Item item = current.get(entry.getKey());
+                        put(entry.getKey(), entry.getValue(), item == null ? null : toItemText(item));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Для каждой проиндексированной вещи хранится только то, что нужно убрать ее из индексов: имя для префиксного
+     * дерева, число токенов для статистики BM25 и id термов нечеткого индекса. Триграммы старой версии
+     * вычисляются из {@code previousText}; если его нет, лишние триграммы остаются в индексе, и кандидатов по ним
+     * отсекает проверка текста в {@link #search}.
+     */
+    private void put(long id, ItemText previousText, ItemText next) {
+        IndexedItem previous = indexed.remove(id);
+        if (previous == null && next == null) {
+            return;
+        }
+        boolean nameChanged = previous == null || next == null || !Objects.equals(previous.name(), next.name());
+        if (previous != null) {
+            if (nameChanged) {
+                nameTrie.remove(previous.name());
+            }
+            if (previous.termIds() != null) {
+                fuzzyIndex.remove(id, previous.termIds());
+            }
+            nameTokens.add(-previous.nameTokens());
+            descriptionTokens.add(-previous.descriptionTokens());
+        }
+        if (next != null) {
+            if (nameChanged) {
+                nameTrie.add(next.name());
+            }
+            int[] termIds = searchProperties.isFuzzyEnabled()
+                    ? fuzzyIndex.add(id, next.name(), next.description())
+                    : null;
+            IndexedItem current = new IndexedItem(next.name(), Bm25Scorer.tokenCount(next.name()),
+                    Bm25Scorer.tokenCount(next.description()), termIds);
+            indexed.put(id, current);
+            nameTokens.add(current.nameTokens());
+            descriptionTokens.add(current.descriptionTokens());
+        }
+        if (isTrigramEnabled()) {
+            updateTrigrams(id, previous == null ? null : previousText, next);
+        }
+    }
+
+    private void updateTrigrams(long id, ItemText previous, ItemText next) {
+        String[] previousFields = previous == null
+                ? new String[0]
+                : new String[]{previous.name(), previous.description()};
+        if (next == null) {
+            trigramIndex.remove(id, previousFields);
+        } else if (previous != null) {
+            trigramIndex.update(id, previousFields, new String[]{next.name(), next.description()});
+        } else {
+            trigramIndex.add(id, next.name(), next.description());
+        }
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        return nameTrie.suggest(prefix, limit);
+    }
+
+    public Optional<CorpusStats> corpusStats() {
+        if (!ready) {
+            return Optional.empty();
+        }
+        long documentCount;
+        synchronized (this) {
+            documentCount = indexed.size();
+        }
+        if (documentCount == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new CorpusStats(documentCount,
+                (double) nameTokens.sum() / documentCount,
+                (double) descriptionTokens.sum() / documentCount));
+    }
+
+    public List<Item> search(String text) {
+        if (!ready || !TrigramIndex.isSearchable(text)) {
+            return itemRepository.searchByText(text);
+        }
+        String query = TrigramIndex.normalize(text);
+        return hydrate(trigramIndex.search(text), item -> matches(item, query));
+    }
+
+    public Optional<FuzzyMatch> fuzzySearch(String text) {
+        if (!ready || !searchProperties.isFuzzyEnabled()) {
+            return Optional.empty();
+        }
+        FuzzyTermIndex.FuzzyResult result = fuzzyIndex.search(text,
+                searchProperties.getFuzzyMaxExpansions(), searchProperties.getFuzzyMaxCandidates());
+        return Optional.of(new FuzzyMatch(hydrate(result.itemIds(), item -> true), result.terms()));
+    }
+
+    private List<Item> hydrate(long[] candidateIds, Predicate<Item> filter) {
+        int batchSize = searchProperties.getBatchSize();
+        List<Item> found = new ArrayList<>();
+        for (int from = 0; from < candidateIds.length; from += batchSize) {
+            long[] chunk = Arrays.copyOfRange(candidateIds, from, Math.min(from + batchSize, candidateIds.length));
+            for (Item item : itemRepository.findByIdInAndAvailableTrue(Arrays.stream(chunk).boxed().toList())) {
+                if (filter.test(item)) {
+                    found.add(item);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static ItemText toItemText(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return null;
+        }
+        return new ItemText(item.getId(), item.getName(), item.getDescription());
+    }
+
+    private boolean isTrigramEnabled() {
+        return searchProperties.getMode() == SearchMode.TRIGRAM;
+    }
+
+    private record IndexedItem(String name, int nameTokens, int descriptionTokens, int[] termIds) {
+    }
+
+    private static boolean matches(Item item, String query) {
+        return TrigramIndex.normalize(item.getName()).contains(query)
+                || TrigramIndex.normalize(item.getDescription()).contains(query);
+    }
+}
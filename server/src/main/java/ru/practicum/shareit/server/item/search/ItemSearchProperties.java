@@ -0,0 +1,43 @@
+package ru.practicum.shareit.server.item.search;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.server.item.enums.SearchMode;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "shareit.search")
+public class ItemSearchProperties {
+
+    private SearchMode mode = SearchMode.LIKE;
+
+    private int batchSize = 1000;
+
+    private int maxResults = 100;
+
+    private double nameBoost = 2.0;
+
+    private int suggestLimit = 10;
+
+    private boolean fuzzyEnabled = true;
+
+    private int fuzzyMaxExpansions = 50;
+
+    private int fuzzyMaxCandidates = 500;
+
+    private boolean cacheEnabled = true;
+
+    private int cacheMaxEntries = 1000;
+
+    private Duration cacheTtl = Duration.ofMinutes(5);
+
+    private int cacheMaxResultIds = 5000;
+
+    private int cacheMaxTotalIds = 200_000;
+
+    private int cacheMaxFullTextChecks = 100;
+
+}
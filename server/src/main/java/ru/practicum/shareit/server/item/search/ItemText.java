@@ -0,0 +1,4 @@
+package ru.practicum.shareit.server.item.search;
+
+public record ItemText(Long id, String name, String description) {
+}
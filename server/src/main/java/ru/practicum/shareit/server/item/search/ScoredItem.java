@@ -0,0 +1,6 @@
+package ru.practicum.shareit.server.item.search;
+
+import ru.practicum.shareit.server.item.Item;
+
+public record ScoredItem(Item item, double score) {
+}
@@ -0,0 +1,4 @@
+package ru.practicum.shareit.server.item.search;
+
+public record SearchCacheKey(boolean fuzzy, String query) {
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.server.item.search;
+
+import ru.practicum.shareit.server.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record SearchCursor(double score, long id) {
+
+    private static final String SEPARATOR = ":";
+
+    public static SearchCursor after(ScoredItem scoredItem) {
+        return new SearchCursor(scoredItem.score(), scoredItem.item().getId());
+    }
+
+    public boolean isBefore(ScoredItem scoredItem) {
+        return isBefore(scoredItem.score(), scoredItem.item().getId());
+    }
+
+    public boolean isBefore(double otherScore, long otherId) {
+        int byScore = Double.compare(otherScore, score);
+        return byScore < 0 || byScore == 0 && otherId > id;
+    }
+
+    public String encode() {
+        String raw = Long.toHexString(Double.doubleToLongBits(score)) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(raw);
+            }
+            return new SearchCursor(Double.longBitsToDouble(Long.parseUnsignedLong(parts[0], 16)),
+                    Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Некорректный курсор: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.server.item.search;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.server.item.Item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class TopK {
+
+    public static final Comparator<ScoredItem> BEST_FIRST = Comparator
+            .comparingDouble(ScoredItem::score).reversed()
+            .thenComparing(scored -> scored.item().getId());
+
+    public static List<ScoredItem> select(Collection<Item> items, Bm25Scorer scorer, int k) {
+        return select(items, scorer, k, null);
+    }
+
+    public static List<ScoredItem> select(Collection<Item> items, Bm25Scorer scorer, int k, SearchCursor after) {
+        if (k <= 0) {
+            return List.of();
+        }
+        PriorityQueue<ScoredItem> heap = new PriorityQueue<>(Math.min(k, items.size()) + 1, BEST_FIRST.reversed());
+        for (Item item : items) {
+            ScoredItem candidate = new ScoredItem(item, scorer.score(item));
+            if (after != null && !after.isBefore(candidate)) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(candidate);
+            } else if (BEST_FIRST.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+        List<ScoredItem> result = new ArrayList<>(heap);
+        result.sort(BEST_FIRST);
+        return result;
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.shareit.server.item.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class TrigramIndex {
+
+    public static final int GRAM_LENGTH = 3;
+
+    private final Map<Long, LongPostingList> postings = new HashMap<>();
+    private final LongPostingList documents = new LongPostingList();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void add(long id, String... fields) {
+        long[] grams = trigrams(fields);
+        lock.writeLock().lock();
+        try {
+            documents.add(id);
+            for (long gram : grams) {
+                postings.computeIfAbsent(gram, key -> new LongPostingList()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id, String... fields) {
+        long[] grams = trigrams(fields);
+        lock.writeLock().lock();
+        try {
+            documents.remove(id);
+            for (long gram : grams) {
+                removePosting(gram, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void update(long id, String[] oldFields, String[] newFields) {
+        long[] oldGrams = trigrams(oldFields);
+        long[] newGrams = trigrams(newFields);
+        lock.writeLock().lock();
+        try {
+            documents.add(id);
+            for (long gram : oldGrams) {
+                if (Arrays.binarySearch(newGrams, gram) < 0) {
+                    removePosting(gram, id);
+                }
+            }
+            for (long gram : newGrams) {
+                if (Arrays.binarySearch(oldGrams, gram) < 0) {
+                    postings.computeIfAbsent(gram, key -> new LongPostingList()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long[] search(String query) {
+        long[] grams = trigrams(query);
+        if (grams.length == 0) {
+            return new long[0];
+        }
+        lock.readLock().lock();
+        try {
+            List<LongPostingList> lists = new ArrayList<>(grams.length);
+            for (long gram : grams) {
+                LongPostingList list = postings.get(gram);
+                if (list == null) {
+                    return new long[0];
+                }
+                lists.add(list);
+            }
+            return LongPostingList.intersect(lists);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static boolean isSearchable(String query) {
+        return query != null && normalize(query).length() >= GRAM_LENGTH;
+    }
+
+    public static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    static long[] trigrams(String... fields) {
+        String[] texts = new String[fields.length];
+        int capacity = 0;
+        for (int i = 0; i < fields.length; i++) {
+            texts[i] = normalize(fields[i]);
+            capacity += Math.max(0, texts[i].length() - GRAM_LENGTH + 1);
+        }
+        long[] grams = new long[capacity];
+        int count = 0;
+        for (String text : texts) {
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                grams[count++] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+            }
+        }
+        Arrays.sort(grams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || grams[distinct - 1] != grams[i]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private void removePosting(long gram, long id) {
+        LongPostingList list = postings.get(gram);
+        if (list != null && list.remove(id) && list.isEmpty()) {
+            postings.remove(gram);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+LOCK TABLE bookings IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE bookings RENAME TO bookings_unpartitioned;
+
+CREATE TABLE bookings (
+    id BIGINT NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id BIGINT NOT NULL,
+    booker_id BIGINT NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    owner_id BIGINT NOT NULL,
+    CONSTRAINT pk_booking_partitioned PRIMARY KEY (id, start_date),
+    CONSTRAINT fk_booking_item_owner_partitioned FOREIGN KEY (item_id, owner_id) REFERENCES items(id, owner_id)
+        ON UPDATE CASCADE ON DELETE CASCADE,
+    CONSTRAINT fk_booker_partitioned FOREIGN KEY (booker_id) REFERENCES users(id) ON DELETE CASCADE
+) PARTITION BY RANGE (start_date);
+
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+-- Ограничение исключения действует только внутри секции: пересечение подтвержденных бронирований
+-- из разных месяцев база не поймает, поэтому BookingServiceImpl подтверждает бронирования
+-- под advisory-блокировкой вещи, общей для всех узлов.
+ALTER TABLE bookings_default ADD CONSTRAINT ex_bookings_item_approved_period_default
+    EXCLUDE USING GIST (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+    WHERE (status = 'APPROVED');
+
+INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, owner_id)
+SELECT id, start_date, end_date, item_id, booker_id, status, owner_id FROM bookings_unpartitioned;
+
+DROP TABLE bookings_unpartitioned;
+
+-- Первичный ключ секционированной таблицы обязан включать start_date, поэтому уникальность id
+-- держит таблица booking_ids, которую ведет триггер на вставку и удаление бронирований.
+CREATE TABLE booking_ids (
+    id BIGINT NOT NULL,
+    CONSTRAINT pk_booking_ids PRIMARY KEY (id)
+);
+
+INSERT INTO booking_ids (id) SELECT id FROM bookings;
+
+CREATE OR REPLACE FUNCTION bookings_register_id() RETURNS TRIGGER AS '
+BEGIN
+    IF TG_OP = ''INSERT'' THEN
+        INSERT INTO booking_ids (id) VALUES (NEW.id);
+    ELSE
+        DELETE FROM booking_ids WHERE id = OLD.id;
+    END IF;
+    RETURN NULL;
+END' LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_bookings_unique_id AFTER INSERT OR DELETE ON bookings
+    FOR EACH ROW EXECUTE FUNCTION bookings_register_id();
+
+CREATE INDEX idx_bookings_booker_start_id ON bookings (booker_id, start_date DESC, id DESC);
+
+CREATE INDEX idx_bookings_item_start_id ON bookings (item_id, start_date DESC, id DESC);
+
+CREATE INDEX idx_bookings_owner_start_id ON bookings (owner_id, start_date DESC, id DESC);
+
+CREATE INDEX idx_bookings_active_period ON bookings
+    USING GIST (item_id, tsrange(start_date, end_date))
+    WHERE status IN ('APPROVED', 'WAITING');
+
+CREATE INDEX idx_bookings_booker_waiting ON bookings (booker_id, start_date DESC, id DESC)
+    WHERE status = 'WAITING';
+
+CREATE INDEX idx_bookings_booker_rejected ON bookings (booker_id, start_date DESC, id DESC)
+    WHERE status = 'REJECTED';
+
+CREATE INDEX idx_bookings_owner_waiting ON bookings (owner_id, start_date DESC, id DESC)
+    WHERE status = 'WAITING';
+
+CREATE INDEX idx_bookings_owner_rejected ON bookings (owner_id, start_date DESC, id DESC)
+    WHERE status = 'REJECTED';
+
+CREATE INDEX idx_bookings_waiting_expiry ON bookings (id) INCLUDE (start_date, item_id)
+    WHERE status = 'WAITING';
@@ -0,0 +1,62 @@
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_ts_config WHERE cfgname = ''shareit_ru_en'') THEN
+        CREATE TEXT SEARCH CONFIGURATION shareit_ru_en (COPY = russian);
+        ALTER TEXT SEARCH CONFIGURATION shareit_ru_en
+            ALTER MAPPING FOR asciiword, asciihword, hword_asciipart WITH english_stem;
+    END IF;
+END';
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('shareit_ru_en', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('shareit_ru_en', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_items_search_vector ON items USING GIN (search_vector);
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_active_period ON bookings
+    USING GIST (item_id, tsrange(start_date, end_date))
+    WHERE status IN ('APPROVED', 'WAITING');
+
+-- Секционированная bookings (bookings-partitioning-postgresql.sql) не принимает EXCLUDE на родительской таблице,
+-- там ограничение есть только у каждой секции, и пересечения бронирований из разных секций база не ловит.
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''ex_bookings_item_approved_period'')
+            AND (SELECT relkind FROM pg_class WHERE oid = ''bookings''::regclass) <> ''p'' THEN
+        ALTER TABLE bookings ADD CONSTRAINT ex_bookings_item_approved_period
+            EXCLUDE USING GIST (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+            WHERE (status = ''APPROVED'');
+    END IF;
+END';
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_waiting ON bookings (booker_id, start_date DESC, id DESC)
+    WHERE status = 'WAITING';
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_rejected ON bookings (booker_id, start_date DESC, id DESC)
+    WHERE status = 'REJECTED';
+
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_waiting ON bookings (owner_id, start_date DESC, id DESC)
+    WHERE status = 'WAITING';
+
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_rejected ON bookings (owner_id, start_date DESC, id DESC)
+    WHERE status = 'REJECTED';
+
+CREATE INDEX IF NOT EXISTS idx_bookings_waiting_expiry ON bookings (id) INCLUDE (start_date, item_id)
+    WHERE status = 'WAITING';
+
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''uq_item_id_owner'') THEN
+        ALTER TABLE items ADD CONSTRAINT uq_item_id_owner UNIQUE (id, owner_id);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''fk_booking_item_owner'')
+            AND (SELECT relkind FROM pg_class WHERE oid = ''bookings''::regclass) <> ''p'' THEN
+        UPDATE bookings b SET owner_id = i.owner_id FROM items i WHERE i.id = b.item_id AND b.owner_id <> i.owner_id;
+        ALTER TABLE bookings ADD CONSTRAINT fk_booking_item_owner FOREIGN KEY (item_id, owner_id)
+            REFERENCES items (id, owner_id) ON UPDATE CASCADE ON DELETE CASCADE;
+    END IF;
+END';
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.server;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Перехватывает подготовленные запросы, которые текущий поток отправляет в базу внутри {@link #capture},
+ * вместе с привязанными параметрами. Подключается через {@link Config}.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CapturedStatements {
+
+    private static final ThreadLocal<List<CapturedStatement>> CAPTURED = new ThreadLocal<>();
+
+    public static List<CapturedStatement> capture(Runnable call) {
+        List<CapturedStatement> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+        try {
+            call.run();
+        } finally {
+            CAPTURED.remove();
+        }
+        return statements;
+    }
+
+    static DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            return result instanceof Connection connection
+                    ? proxy(Connection.class, connection, CapturedStatements::onConnectionCall)
+                    : result;
+        });
+    }
+
+    private static Object onConnectionCall(Connection connection, Method method, Object[] args)
+            throws Exception {
+        Object result = method.invoke(connection, args);
+        List<CapturedStatement> statements = CAPTURED.get();
+        if (statements == null || !(result instanceof PreparedStatement prepared)
+                || !method.getName().equals("prepareStatement")) {
+            return result;
+        }
+        CapturedStatement statement = new CapturedStatement((String) args[0], new TreeMap<>());
+        statements.add(statement);
+        return proxy(PreparedStatement.class, prepared, (target, call, callArgs) -> {
+            if (call.getName().startsWith("set") && callArgs != null && callArgs.length >= 2
+                    && callArgs[0] instanceof Integer index) {
+                statement.parameters().put(index, call.getName().equals("setNull") ? null : callArgs[1]);
+            }
+            return call.invoke(target, callArgs);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            try {
+                return handler.invoke(target, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    private interface Handler<T> {
+        Object invoke(T target, Method method, Object[] args) throws Exception;
+    }
+
+    public record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+
+        /**
+         * Готовит тот же запрос с префиксом, например {@code EXPLAIN}, и привязывает к нему те же параметры.
+         */
+        public PreparedStatement prepare(Connection connection, String prefix) throws SQLException {
+            PreparedStatement statement = connection.prepareStatement(prefix + sql);
+            for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                statement.setObject(parameter.getKey(), parameter.getValue());
+            }
+            return statement;
+        }
+    }
+
+    @TestConfiguration
+    public static class Config {
+
+        @Bean
+        static BeanPostProcessor capturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.server;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.server.CapturedStatements.CapturedStatement;
+import ru.practicum.shareit.server.booking.Booking;
+import ru.practicum.shareit.server.booking.BookingCursor;
+import ru.practicum.shareit.server.booking.BookingFilter;
+import ru.practicum.shareit.server.booking.BookingRepository;
+import ru.practicum.shareit.server.booking.BookingSpecifications;
+import ru.practicum.shareit.server.booking.enums.BookingState;
+import ru.practicum.shareit.server.item.ItemRepository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.server.QueryPlanDataset.NOW;
+
+/**
+ * Проверяет частичные, GiST- и GIN-индексы из schema-postgresql.sql на запросах, которые на H2 не выполняются.
+ * <p>
+ * Запускается, только если в SHAREIT_PLAN_DB_URL задан адрес пустой базы Postgres: тест создает в ней схему,
+ * заполняет таблицы и очищает их в конце. Логин и пароль берутся из SHAREIT_PLAN_DB_USER и SHAREIT_PLAN_DB_PASSWORD.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "SHAREIT_PLAN_DB_URL", matches = ".+")
+@TestPropertySource(properties = {
+        "spring.datasource.url=${SHAREIT_PLAN_DB_URL}",
+        "spring.datasource.username=${SHAREIT_PLAN_DB_USER:postgres}",
+        "spring.datasource.password=${SHAREIT_PLAN_DB_PASSWORD:12345}"})
+@SpringBootTest
+@Import(CapturedStatements.Config.class)
+class PostgresQueryPlanIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @BeforeAll
+    void seed() {
+        QueryPlanDataset.seed(jdbcTemplate);
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE comments, bookings, items, requests, users RESTART IDENTITY CASCADE");
+    }
+
+    Stream<Arguments> repositoryCalls() {
+        Specification<Booking> booker = BookingSpecifications.bookedBy(7L);
+        Specification<Booking> owner = BookingSpecifications.ownedBy(7L);
+        return Stream.of(
+                Arguments.of("BookingRepository.findRows[booker, WAITING]",
+                        page(booker, BookingFilter.of(BookingState.WAITING))),
+                Arguments.of("BookingRepository.findRows[booker, REJECTED]",
+                        page(booker, BookingFilter.of(BookingState.REJECTED))),
+                Arguments.of("BookingRepository.findRows[owner, WAITING]",
+                        page(owner, BookingFilter.of(BookingState.WAITING))),
+                Arguments.of("BookingRepository.findRows[owner, REJECTED]",
+                        page(owner, BookingFilter.of(BookingState.REJECTED))),
+                Arguments.of("BookingRepository.findNearestBookingsByIndex",
+                        call(() -> bookingRepository.findNearestBookingsByIndex(List.of(1L, 2L, 3L), NOW))),
+                Arguments.of("BookingRepository.approveIfWaitingReturning",
+                        call(() -> bookingRepository.approveIfWaitingReturning(42L, 7L))),
+                Arguments.of("BookingRepository.lockExpiredWaiting",
+                        call(() -> bookingRepository.lockExpiredWaiting(NOW, 0L, 500))),
+                Arguments.of("ItemRepository.searchByFullText",
+                        call(() -> itemRepository.searchByFullText("Item 7"))),
+                Arguments.of("ItemRepository.findFullTextQueriesMatchingItem",
+                        call(() -> itemRepository.findFullTextQueriesMatchingItem(5L, "item"))),
+                Arguments.of("ItemRepository.findFreeItemIdsByRange",
+                        call(() -> itemRepository.findFreeItemIdsByRange(List.of(1L, 2L, 3L), NOW, NOW.plusDays(1))))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryCalls")
+    void repositoryQuery_shouldUseIndex(String query, Runnable call) {
+        List<CapturedStatement> statements = CapturedStatements.capture(call);
+
+        assertThat(statements).as("Запросы %s", query).isNotEmpty();
+        for (CapturedStatement statement : statements) {
+            String plan = explain(statement);
+            assertThat(plan).as("План запроса %s:%n%s", query, plan).doesNotContain("Seq Scan");
+        }
+    }
+
+    private Runnable page(Specification<Booking> party, BookingFilter filter) {
+        return page(party, filter, null);
+    }
+
+    private Runnable page(Specification<Booking> party, BookingFilter filter, BookingCursor cursor) {
+        Specification<Booking> specification = party
+                .and(BookingSpecifications.matching(filter, NOW))
+                .and(BookingSpecifications.after(cursor));
+        return () -> bookingRepository.findRows(specification, 0, Limit.of(11));
+    }
+
+    private static Runnable call(Runnable call) {
+        return call;
+    }
+
+    private String explain(CapturedStatement statement) {
+        List<String> lines = jdbcTemplate.query(connection -> statement.prepare(connection, "EXPLAIN "),
+                (rs, rowNum) -> rs.getString(1));
+        return String.join(System.lineSeparator(), lines);
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.server;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Набор данных для проверки планов: достаточно строк, чтобы поиск по индексу был дешевле полного чтения.
+ * Вещь с id N принадлежит пользователю N % 200 + 1, бронирование с id N статуса WAITING, если N % 4 == 0.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class QueryPlanDataset {
+
+    static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private static final int USERS = 200;
+    private static final int REQUESTS = 1_000;
+    private static final int ITEMS = 2_000;
+    private static final int BOOKINGS = 30_000;
+    private static final int COMMENTS = 5_000;
+
+    static void seed(JdbcTemplate jdbcTemplate) {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Object[]> users = new ArrayList<>();
+        for (long i = 1; i <= USERS; i++) {
+            users.add(new Object[]{i, "User " + i, "user" + i + "@plan.test"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", users);
+
+        List<Object[]> requests = new ArrayList<>();
+        for (long i = 1; i <= REQUESTS; i++) {
+            requests.add(new Object[]{i, "Request " + i, i % USERS + 1, Timestamp.valueOf(base.plusHours(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO requests (id, description, requestor_id, create_date) " +
+                "VALUES (?, ?, ?, ?)", requests);
+
+        List<Object[]> items = new ArrayList<>();
+        for (long i = 1; i <= ITEMS; i++) {
+            items.add(new Object[]{i, i % USERS + 1, "Item " + i, "Description " + i, true,
+                    i % 4 == 0 ? i % REQUESTS + 1 : null});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (id, owner_id, name, description, available, request_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", items);
+
+        String[] statuses = {"WAITING", "APPROVED", "REJECTED", "CANCELED"};
+        List<Object[]> bookings = new ArrayList<>();
+        for (long i = 1; i <= BOOKINGS; i++) {
+            LocalDateTime start = base.plusHours(i);
+            long itemId = i % ITEMS + 1;
+            bookings.add(new Object[]{i, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(2)),
+                    itemId, (i * 7) % USERS + 1, statuses[(int) (i % statuses.length)], itemId % USERS + 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, owner_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", bookings);
+
+        List<Object[]> comments = new ArrayList<>();
+        for (long i = 1; i <= COMMENTS; i++) {
+            comments.add(new Object[]{i, "Comment " + i, i % ITEMS + 1, i % USERS + 1,
+                    Timestamp.valueOf(base.plusHours(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO comments (id, text, item_id, author_id, created) " +
+                "VALUES (?, ?, ?, ?, ?)", comments);
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
@@ -0,0 +1,170 @@
+package ru.practicum.shareit.server;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.server.CapturedStatements.CapturedStatement;
+import ru.practicum.shareit.server.booking.Booking;
+import ru.practicum.shareit.server.booking.BookingCursor;
+import ru.practicum.shareit.server.booking.BookingFilter;
+import ru.practicum.shareit.server.booking.BookingRepository;
+import ru.practicum.shareit.server.booking.BookingSpecifications;
+import ru.practicum.shareit.server.booking.enums.BookingState;
+import ru.practicum.shareit.server.booking.enums.Status;
+import ru.practicum.shareit.server.item.CommentRepository;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.request.ItemRequestRepository;
+import ru.practicum.shareit.server.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.server.QueryPlanDataset.NOW;
+
+/**
+ * Проверяет на H2, что SQL, который репозитории отправляют в базу, читает таблицы по индексам.
+ * <p>
+ * Запросы перехватываются вместе с параметрами и разбираются через EXPLAIN, полное чтение H2 помечает как
+ * {@code tableScan}. Запросы только для Postgres и индексы из schema-postgresql.sql проверяет
+ * {@link PostgresQueryPlanIntegrationTest}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "spring.datasource.url=jdbc:h2:mem:query-plans")
+@SpringBootTest
+@Import(CapturedStatements.Config.class)
+class QueryPlanIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeAll
+    void seed() {
+        QueryPlanDataset.seed(jdbcTemplate);
+    }
+
+    Stream<Arguments> repositoryCalls() {
+        Specification<Booking> booker = BookingSpecifications.bookedBy(7L);
+        Specification<Booking> owner = BookingSpecifications.ownedBy(7L);
+        return Stream.of(
+                Arguments.of("BookingRepository.findRows[booker, ALL]",
+                        page(booker, BookingFilter.of(BookingState.ALL))),
+                Arguments.of("BookingRepository.findRows[booker, CURRENT]",
+                        page(booker, BookingFilter.of(BookingState.CURRENT))),
+                Arguments.of("BookingRepository.findRows[booker, PAST]",
+                        page(booker, BookingFilter.of(BookingState.PAST))),
+                Arguments.of("BookingRepository.findRows[booker, FUTURE]",
+                        page(booker, BookingFilter.of(BookingState.FUTURE))),
+                Arguments.of("BookingRepository.findRows[booker, WAITING]",
+                        page(booker, BookingFilter.of(BookingState.WAITING))),
+                Arguments.of("BookingRepository.findRows[owner, ALL]", page(owner, BookingFilter.of(BookingState.ALL))),
+                Arguments.of("BookingRepository.findRows[owner, ALL, cursor]",
+                        page(owner, BookingFilter.of(BookingState.ALL), new BookingCursor(NOW, 12_000L))),
+                Arguments.of("BookingRepository.findRows[owner, CURRENT]",
+                        page(owner, BookingFilter.of(BookingState.CURRENT))),
+                Arguments.of("BookingRepository.findRows[owner, PAST]",
+                        page(owner, BookingFilter.of(BookingState.PAST))),
+                Arguments.of("BookingRepository.findRows[owner, FUTURE]",
+                        page(owner, BookingFilter.of(BookingState.FUTURE))),
+                Arguments.of("BookingRepository.findRows[owner, REJECTED]",
+                        page(owner, BookingFilter.of(BookingState.REJECTED))),
+                Arguments.of("BookingRepository.findRows[owner, FUTURE, WAITING, item, range]",
+                        page(owner, new BookingFilter(BookingState.FUTURE, Status.WAITING, 5L,
+                                LocalDateTime.of(2025, 6, 1, 0, 0), LocalDateTime.of(2025, 7, 1, 0, 0)))),
+                Arguments.of("BookingRepository.findById", call(() -> bookingRepository.findById(42L))),
+                Arguments.of("BookingRepository.findRowById", call(() -> bookingRepository.findRowById(42L))),
+                Arguments.of("BookingRepository.findItemIdById", call(() -> bookingRepository.findItemIdById(42L))),
+                Arguments.of("BookingRepository.findByItemIdIn",
+                        call(() -> bookingRepository.findByItemIdIn(List.of(1L, 2L, 3L)))),
+                Arguments.of("BookingRepository.findByItemId", call(() -> bookingRepository.findByItemId(5L))),
+                Arguments.of("BookingRepository.findByBookerIdAndItemId",
+                        call(() -> bookingRepository.findByBookerIdAndItemId(2L, 1L))),
+                Arguments.of("BookingRepository.findNearestBookings",
+                        call(() -> bookingRepository.findNearestBookings(List.of(1L, 2L, 3L), NOW))),
+                Arguments.of("BookingRepository.existsApprovedOverlap",
+                        call(() -> bookingRepository.existsApprovedOverlap(5L, NOW, NOW.plusDays(1), 1L))),
+                Arguments.of("BookingRepository.findDecisionTargets",
+                        call(() -> bookingRepository.findDecisionTargets(List.of(1L, 2L, 3L)))),
+                Arguments.of("BookingRepository.approveIfWaiting",
+                        call(() -> bookingRepository.approveIfWaiting(42L, 7L))),
+                Arguments.of("ItemRepository.findByOwnerId", call(() -> itemRepository.findByOwnerId(7L))),
+                Arguments.of("ItemRepository.findByRequestId", call(() -> itemRepository.findByRequestId(9L))),
+                Arguments.of("ItemRepository.findByRequestIdIn",
+                        call(() -> itemRepository.findByRequestIdIn(List.of(9L, 10L, 11L)))),
+                Arguments.of("ItemRequestRepository.findByRequestorId",
+                        call(() -> itemRequestRepository.findByRequestorId(7L))),
+                Arguments.of("CommentRepository.findByItemId", call(() -> commentRepository.findByItemId(5L))),
+                Arguments.of("CommentRepository.findByItemIdIn",
+                        call(() -> commentRepository.findByItemIdIn(List.of(1L, 2L, 3L)))),
+                Arguments.of("UserRepository.findByEmail", call(() -> userRepository.findByEmail("user7@plan.test")))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryCalls")
+    void repositoryQuery_shouldUseIndex(String query, Runnable call) {
+        List<CapturedStatement> statements = CapturedStatements.capture(call);
+
+        assertThat(statements).as("Запросы %s", query).isNotEmpty();
+        for (CapturedStatement statement : statements) {
+            String plan = explain(statement);
+            assertThat(plan).as("План запроса %s:%n%s", query, plan).doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    @Test
+    void explain_shouldReportTableScan_forUnindexedPredicate() {
+        List<CapturedStatement> statements = CapturedStatements.capture(() -> jdbcTemplate.queryForList(
+                "SELECT b.id FROM bookings b WHERE b.end_date < ?", Long.class, NOW));
+
+        assertThat(statements).hasSize(1);
+        assertThat(explain(statements.get(0))).containsIgnoringCase("tableScan");
+    }
+
+    private Runnable page(Specification<Booking> party, BookingFilter filter) {
+        return page(party, filter, null);
+    }
+
+    private Runnable page(Specification<Booking> party, BookingFilter filter, BookingCursor cursor) {
+        Specification<Booking> specification = party
+                .and(BookingSpecifications.matching(filter, NOW))
+                .and(BookingSpecifications.after(cursor));
+        return () -> bookingRepository.findRows(specification, 0, Limit.of(11));
+    }
+
+    private static Runnable call(Runnable call) {
+        return call;
+    }
+
+    private String explain(CapturedStatement statement) {
+        return jdbcTemplate.query(connection -> statement.prepare(connection, "EXPLAIN "),
+                rs -> rs.next() ? rs.getString(1) : null);
+    }
+}
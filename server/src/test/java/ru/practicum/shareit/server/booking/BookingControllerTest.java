@@ -6,9 +6,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.server.booking.dto.BookingBatchDto;
+import ru.practicum.shareit.server.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionBatchDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.booking.dto.BookingPageDto;
+import ru.practicum.shareit.server.booking.enums.BookingDecisionOutcome;
+import ru.practicum.shareit.server.booking.enums.BookingExportFormat;
 import ru.practicum.shareit.server.booking.enums.BookingState;
 import ru.practicum.shareit.server.booking.enums.Status;
 import ru.practicum.shareit.server.item.dto.CommentDto;
@@ -23,6 +33,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -38,6 +51,9 @@ class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private BookingExportService bookingExportService;
+
 
     @SneakyThrows
     @Test
@@ -141,25 +157,123 @@ class BookingControllerTest {
     @Test
     void getBookingsByBookerIdWithFilter_shouldReturnBookingsAndReturn200() {
         long bookerId = 1L;
+        when(bookingService.getBookingsByBookerIdWithFilter(bookerId, BookingFilter.of(BookingState.ALL), null, null, null))
+                .thenReturn(new BookingPageDto(List.of(), null));
 
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", bookerId)
                         .param("state", String.valueOf(BookingState.ALL)))
                 .andExpect(status().isOk());
 
-        verify(bookingService).getBookingsByBookerIdWithFilter(bookerId, BookingState.ALL);
+        verify(bookingService).getBookingsByBookerIdWithFilter(bookerId, BookingFilter.of(BookingState.ALL), null, null, null);
     }
 
     @SneakyThrows
     @Test
     void getBookingsByOwnerIdWithFilter_shouldReturnBookingsAndReturn200() {
         long ownerId = 1L;
+        when(bookingService.getBookingsByOwnerIdWithFilter(ownerId, BookingFilter.of(BookingState.ALL), 0, 2, null))
+                .thenReturn(new BookingPageDto(List.of(), "next"));
 
         mockMvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", ownerId)
-                        .param("state", String.valueOf(BookingState.ALL)))
+                        .param("state", String.valueOf(BookingState.ALL))
+                        .param("from", "0")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, "next"));
+
+        verify(bookingService).getBookingsByOwnerIdWithFilter(ownerId, BookingFilter.of(BookingState.ALL), 0, 2, null);
+    }
+
+    @SneakyThrows
+    @Test
+    void createBatch_shouldCreateBookingsAndReturn200() {
+        long bookerId = 1L;
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 10, 0);
+        List<BookingDto> bookings = List.of(
+                new BookingDto(null, start, start.plusDays(1), 3L, null, null, null),
+                new BookingDto(null, start, start.plusDays(1), 4L, null, null, null));
+        List<BookingDto> created = List.of(
+                new BookingDto(51L, start, start.plusDays(1), 3L, new ItemDto(), new UserDto(), Status.WAITING),
+                new BookingDto(52L, start, start.plusDays(1), 4L, new ItemDto(), new UserDto(), Status.WAITING));
+        when(bookingService.createBatch(bookerId, bookings)).thenReturn(created);
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", bookerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookingBatchDto(bookings))))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(created)));
+
+        verify(bookingService).createBatch(bookerId, bookings);
+    }
+
+    @SneakyThrows
+    @Test
+    void decideBookings_shouldReturnResultPerBookingAndReturn200() {
+        long ownerId = 7L;
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true), new BookingDecisionDto(2L, false));
+        List<BookingDecisionResultDto> results = List.of(
+                new BookingDecisionResultDto(1L, BookingDecisionOutcome.APPROVED, Status.APPROVED),
+                new BookingDecisionResultDto(2L, BookingDecisionOutcome.ALREADY_DECIDED, Status.CANCELED));
+        when(bookingService.decideBookings(ownerId, decisions)).thenReturn(results);
+
+        mockMvc.perform(patch("/bookings")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookingDecisionBatchDto(decisions))))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(results)));
+
+        verify(bookingService).decideBookings(ownerId, decisions);
+    }
+
+    @SneakyThrows
+    @Test
+    void exportBookingsByOwnerId_shouldStreamBodyAsAttachment() {
+        long ownerId = 1L;
+        when(bookingExportService.exportBookingsByOwnerId(ownerId, BookingFilter.of(BookingState.ALL),
+                BookingExportFormat.NDJSON))
+                .thenReturn(outputStream -> outputStream.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("format", "NDJSON"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.ndjson\""))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @SneakyThrows
+    @Test
+    void countBookingsByBookerId_shouldReturnCountsAndReturn200() {
+        long bookerId = 1L;
+        BookingCountsDto counts = new BookingCountsDto(6L, 1L, 2L, 3L, 1L, 1L);
+        when(bookingService.countBookingsByBookerId(bookerId)).thenReturn(counts);
+
+        mockMvc.perform(get("/bookings/counts")
+                        .header("X-Sharer-User-Id", bookerId))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(counts)));
+    }
+
+    @SneakyThrows
+    @Test
+    void countBookingsByOwnerId_shouldReturnCountsAndReturn200() {
+        long ownerId = 1L;
+        when(bookingService.countBookingsByOwnerId(ownerId))
+                .thenReturn(new BookingCountsDto(0L, 0L, 0L, 0L, 0L, 0L));
+
+        mockMvc.perform(get("/bookings/owner/counts")
+                        .header("X-Sharer-User-Id", ownerId))
                 .andExpect(status().isOk());
 
-        verify(bookingService).getBookingsByOwnerIdWithFilter(ownerId, BookingState.ALL);
+        verify(bookingService).countBookingsByOwnerId(ownerId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.server.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.server.config.DatabaseProperties;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingExpiryServiceImplTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Spy
+    private BookingProperties bookingProperties = new BookingProperties();
+    @Spy
+    private DatabaseProperties databaseProperties = new DatabaseProperties();
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private BookingExpiryServiceImpl bookingExpiryService;
+
+    @BeforeEach
+    void runBatchesInline() {
+        bookingProperties.setExpiryBatchSize(2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Должен отклонить просроченные бронирования пачками, продвигаясь по id")
+    void expireWaiting_shouldRejectInBatchesWithKeysetOverId() {
+        when(bookingRepository.findExpiredWaiting(any(), eq(0L), eq(Limit.of(2))))
+                .thenReturn(List.of(3L, 5L));
+        when(bookingRepository.findExpiredWaiting(any(), eq(5L), eq(Limit.of(2))))
+                .thenReturn(List.of(8L));
+        when(bookingRepository.rejectWaiting(List.of(3L, 5L))).thenReturn(2);
+        when(bookingRepository.rejectWaiting(List.of(8L))).thenReturn(1);
+
+        int expired = bookingExpiryService.expireWaiting();
+
+        assertThat(expired, equalTo(3));
+        assertThat(meterRegistry.get(BookingExpiryServiceImpl.EXPIRED_METRIC).counter().count(), equalTo(3.0));
+    }
+
+    @Test
+    @DisplayName("Должен блокировать просроченные бронирования через SKIP LOCKED на Postgres")
+    void expireWaiting_shouldLockWithSkipLocked_onPostgres() {
+        databaseProperties.setPostgres(true);
+        when(bookingRepository.lockExpiredWaiting(any(), eq(0L), eq(2))).thenReturn(List.of());
+
+        int expired = bookingExpiryService.expireWaiting();
+
+        assertThat(expired, equalTo(0));
+        verify(bookingRepository, never()).findExpiredWaiting(any(), anyLong(), any());
+        verify(bookingRepository, never()).rejectWaiting(any());
+    }
+}
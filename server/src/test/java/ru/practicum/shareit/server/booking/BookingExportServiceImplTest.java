@@ -0,0 +1,140 @@
+package ru.practicum.shareit.server.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.booking.enums.BookingExportFormat;
+import ru.practicum.shareit.server.booking.enums.BookingState;
+import ru.practicum.shareit.server.booking.enums.Status;
+import ru.practicum.shareit.server.exception.ForbiddenExcepton;
+import ru.practicum.shareit.server.user.User;
+import ru.practicum.shareit.server.user.UserRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingExportServiceImplTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 3, 12, 0);
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Spy
+    private BookingProperties bookingProperties = new BookingProperties();
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Spy
+    private ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @InjectMocks
+    private BookingExportServiceImpl bookingExportService;
+
+    @BeforeEach
+    void runExportInline() {
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Должен выгрузить строки в CSV с заголовком и экранированием")
+    void exportBookingsByOwnerId_shouldWriteCsv() throws Exception {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(bookingRepository.streamRows(any(), eq(500))).thenReturn(Stream.of(
+                bookingRow(7L, "Дрель, ударная", "Ivan \"Drill\" Petrov"),
+                bookingRow(6L, "Отвертка", "Irina Ivanova")));
+
+        String csv = export(BookingExportFormat.CSV);
+
+        assertThat(csv, equalTo(BookingExportServiceImpl.CSV_HEADER + "\n" +
+                "7,2025-01-03T12:00,2025-01-04T12:00,APPROVED,3,\"Дрель, ударная\",2,\"Ivan \"\"Drill\"\" Petrov\",user@mail.ru\n" +
+                "6,2025-01-03T12:00,2025-01-04T12:00,APPROVED,3,Отвертка,2,Irina Ivanova,user@mail.ru\n"));
+    }
+
+    @Test
+    @DisplayName("Должен выгрузить каждое бронирование отдельной строкой JSON")
+    void exportBookingsByOwnerId_shouldWriteNdjson() throws Exception {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(bookingRepository.streamRows(any(), anyInt())).thenReturn(Stream.of(
+                bookingRow(7L, "Дрель", "Ivan Petrov"),
+                bookingRow(6L, "Отвертка", "Irina Ivanova")));
+
+        String[] lines = export(BookingExportFormat.NDJSON).split("\n");
+
+        assertThat(lines.length, equalTo(2));
+        assertThat(objectMapper.readValue(lines[0], BookingDto.class).getId(), equalTo(7L));
+        assertThat(objectMapper.readValue(lines[1], BookingDto.class).getBooker().getName(), equalTo("Irina Ivanova"));
+    }
+
+    @Test
+    @DisplayName("Должен читать строки порциями заданного размера и закрыть поток после выгрузки")
+    void exportBookingsByOwnerId_shouldUseFetchSizeAndCloseStream() throws Exception {
+        bookingProperties.setExportFetchSize(50);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(bookingRepository.streamRows(any(), eq(50)))
+                .thenReturn(Stream.of(bookingRow(7L, "Дрель", "Ivan Petrov")).onClose(() -> closed.set(true)));
+
+        export(BookingExportFormat.CSV);
+
+        assertTrue(closed.get());
+    }
+
+    @Test
+    @DisplayName("Должен выбросить исключение до начала выгрузки, если владелец не найден")
+    void exportBookingsByOwnerId_shouldThrowException_ifOwnerNotFound() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ForbiddenExcepton.class, () -> bookingExportService.exportBookingsByOwnerId(
+                1L, BookingFilter.of(BookingState.ALL), BookingExportFormat.CSV));
+        verify(bookingRepository, never()).streamRows(any(), anyInt());
+    }
+
+    private String export(BookingExportFormat format) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bookingExportService.exportBookingsByOwnerId(1L, BookingFilter.of(BookingState.ALL), format)
+                .writeTo(outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private static BookingRow bookingRow(Long id, String itemName, String bookerName) {
+        return new BookingRow(id, START, START.plusDays(1), Status.APPROVED, 3L, itemName, "Описание",
+                true, null, 2L, bookerName, "user@mail.ru");
+    }
+}
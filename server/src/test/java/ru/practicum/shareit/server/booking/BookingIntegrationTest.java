@@ -1,17 +1,35 @@
 package ru.practicum.shareit.server.booking;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.server.booking.dto.BookingBatchDto;
+import ru.practicum.shareit.server.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionBatchDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.booking.enums.BookingDecisionOutcome;
+import ru.practicum.shareit.server.booking.enums.Status;
+import ru.practicum.shareit.server.exception.BookingConflictException;
 import ru.practicum.shareit.server.item.dto.ItemDto;
 import ru.practicum.shareit.server.user.dto.UserDto;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -26,6 +44,18 @@ class BookingIntegrationTest {
     @Autowired
     private ApplicationContext applicationContext;
 
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingExpiryService bookingExpiryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void getBookingsByBookerIdWithFilter_shouldReturnFilteredBookings() {
         // Создаем пользователя
@@ -99,6 +129,295 @@ class BookingIntegrationTest {
         assertThat(responseRejected.getBody().length).isEqualTo(1);
     }
 
+    @Test
+    void approveOrRejectBooking_shouldApproveOnlyOneOfConcurrentOverlappingBookings() throws Exception {
+        UserDto ownerDto = new UserDto(null, "Oleg Sidorov", "oleg.stress@gmail.com");
+        Long ownerId = testRestTemplate.postForEntity("/users", ownerDto, UserDto.class).getBody().getId();
+        UserDto bookerDto = new UserDto(null, "Olga Sidorova", "olga.stress@gmail.com");
+        Long bookerId = testRestTemplate.postForEntity("/users", bookerDto, UserDto.class).getBody().getId();
+        Long itemId = createItem(ownerId, new ItemDto(null, "Saw", "Sharp saw", true, null, null)).getId();
+
+        int bookingsCount = 20;
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < bookingsCount; i++) {
+            bookingIds.add(createBooking(bookerId, itemId, start.plusHours(i), start.plusHours(i).plusDays(2)).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(bookingsCount);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            results.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingService.approveOrRejectBooking(ownerId, bookingId, true);
+                    return true;
+                } catch (BookingConflictException e) {
+                    return false;
+                }
+            }));
+        }
+        ready.countDown();
+        int approved = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) {
+                approved++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(approved).isEqualTo(1);
+        assertThat(bookingRepository.findRows(BookingSpecifications.ownedBy(ownerId)
+                .and(BookingSpecifications.hasStatus(Status.APPROVED)), Limit.unlimited()))
+                .hasSize(1);
+    }
+
+    @Test
+    void getBookingsByBookerIdWithFilter_shouldPageWithCursor() {
+        UserDto bookerDto = new UserDto(null, "Pavel Orlov", "pavel.pages@gmail.com");
+        Long bookerId = testRestTemplate.postForEntity("/users", bookerDto, UserDto.class).getBody().getId();
+        Long itemId = createItem(bookerId, new ItemDto(null, "Ladder", "Tall ladder", true, null, null)).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        for (int i = 0; i < 5; i++) {
+            createBooking(bookerId, itemId, start.plusDays(i), start.plusDays(i).plusHours(1));
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(bookerId));
+        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
+        List<BookingDto> collected = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String url = "/bookings?size=2" + (cursor == null ? "" : "&cursor=" + cursor);
+            ResponseEntity<BookingDto[]> response = testRestTemplate.exchange(
+                    url, HttpMethod.GET, requestEntity, BookingDto[].class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertNotNull(response.getBody());
+            collected.addAll(List.of(response.getBody()));
+            cursor = response.getHeaders().getFirst(BookingController.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(collected).extracting(BookingDto::getStart)
+                .containsExactly(start.plusDays(4), start.plusDays(3), start.plusDays(2),
+                        start.plusDays(1), start);
+    }
+
+    @Test
+    void getBookingsByOwnerIdWithFilter_shouldCombineStateStatusItemAndRange() {
+        UserDto ownerDto = new UserDto(null, "Kirill Zaitsev", "kirill.filter@gmail.com");
+        Long ownerId = testRestTemplate.postForEntity("/users", ownerDto, UserDto.class).getBody().getId();
+        UserDto bookerDto = new UserDto(null, "Ksenia Zaitseva", "ksenia.filter@gmail.com");
+        Long bookerId = testRestTemplate.postForEntity("/users", bookerDto, UserDto.class).getBody().getId();
+        Long bikeId = createItem(ownerId, new ItemDto(null, "Bike", "City bike", true, null, null)).getId();
+        Long helmetId = createItem(ownerId, new ItemDto(null, "Helmet", "Bike helmet", true, null, null)).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(10).withNano(0);
+        Booking matching = createBooking(bookerId, bikeId, start, start.plusDays(1));
+        createBooking(bookerId, bikeId, start.plusDays(20), start.plusDays(21));
+        createBooking(bookerId, helmetId, start, start.plusDays(1));
+        Booking approved = createBooking(bookerId, bikeId, start.plusDays(2), start.plusDays(3));
+        bookingService.approveOrRejectBooking(ownerId, approved.getId(), true);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(ownerId));
+        String url = "/bookings/owner?state=FUTURE&status=WAITING&itemId=" + bikeId +
+                "&rangeStart=" + start.minusDays(1) + "&rangeEnd=" + start.plusDays(5);
+        ResponseEntity<BookingDto[]> response = testRestTemplate.exchange(
+                url, HttpMethod.GET, new HttpEntity<>(headers), BookingDto[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertNotNull(response.getBody());
+        assertThat(response.getBody()).extracting(BookingDto::getId).containsExactly(matching.getId());
+    }
+
+    @Test
+    void createBatch_shouldInsertAllBookingsOrNone() {
+        UserDto ownerDto = new UserDto(null, "Gleb Smirnov", "gleb.package@gmail.com");
+        Long ownerId = testRestTemplate.postForEntity("/users", ownerDto, UserDto.class).getBody().getId();
+        UserDto bookerDto = new UserDto(null, "Galina Smirnova", "galina.package@gmail.com");
+        Long bookerId = testRestTemplate.postForEntity("/users", bookerDto, UserDto.class).getBody().getId();
+        Long stageId = createItem(ownerId, new ItemDto(null, "Stage", "Mobile stage", true, null, null)).getId();
+        Long speakerId = createItem(ownerId, new ItemDto(null, "Speaker", "Concert speaker", true, null, null)).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(20).withNano(0);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(bookerId));
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        BookingBatchDto batch = new BookingBatchDto(List.of(
+                new BookingDto(null, start, start.plusDays(1), stageId, null, null, null),
+                new BookingDto(null, start.plusDays(1), start.plusDays(2), stageId, null, null, null),
+                new BookingDto(null, start, start.plusDays(2), speakerId, null, null, null)));
+        ResponseEntity<BookingDto[]> response = testRestTemplate.exchange("/bookings/batch",
+                HttpMethod.POST, new HttpEntity<>(batch, headers), BookingDto[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertNotNull(response.getBody());
+        assertThat(response.getBody()).extracting(BookingDto::getItemId).containsExactly(stageId, stageId, speakerId);
+        assertThat(response.getBody()).allSatisfy(booking -> {
+            assertThat(booking.getId()).isNotNull();
+            assertThat(bookingRepository.findStatusById(booking.getId())).contains(Status.WAITING);
+        });
+
+        BookingBatchDto overlapping = new BookingBatchDto(List.of(
+                new BookingDto(null, start.plusDays(5), start.plusDays(6), speakerId, null, null, null),
+                new BookingDto(null, start, start.plusDays(1), Long.MAX_VALUE, null, null, null)));
+        ResponseEntity<String> rejected = testRestTemplate.exchange("/bookings/batch",
+                HttpMethod.POST, new HttpEntity<>(overlapping, headers), String.class);
+
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings WHERE item_id = ?", Long.class,
+                speakerId)).isEqualTo(1L);
+    }
+
+    @Test
+    void decideBookings_shouldApplyBatchAndReportEachBooking() {
+        UserDto ownerDto = new UserDto(null, "Fedor Kuznetsov", "fedor.batch@gmail.com");
+        Long ownerId = testRestTemplate.postForEntity("/users", ownerDto, UserDto.class).getBody().getId();
+        UserDto otherOwnerDto = new UserDto(null, "Fekla Kuznetsova", "fekla.batch@gmail.com");
+        Long otherOwnerId = testRestTemplate.postForEntity("/users", otherOwnerDto, UserDto.class).getBody().getId();
+        UserDto bookerDto = new UserDto(null, "Filipp Kuznetsov", "filipp.batch@gmail.com");
+        Long bookerId = testRestTemplate.postForEntity("/users", bookerDto, UserDto.class).getBody().getId();
+        Long carId = createItem(ownerId, new ItemDto(null, "Trailer", "Car trailer", true, null, null)).getId();
+        Long drillId = createItem(ownerId, new ItemDto(null, "Drill", "Hammer drill", true, null, null)).getId();
+        Long foreignId = createItem(otherOwnerId, new ItemDto(null, "Mixer", "Concrete mixer", true, null, null)).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(5).withNano(0);
+        Long first = createBooking(bookerId, carId, start, start.plusDays(2)).getId();
+        Long overlapping = createBooking(bookerId, carId, start.plusDays(1), start.plusDays(3)).getId();
+        Long rejected = createBooking(bookerId, drillId, start, start.plusDays(1)).getId();
+        Long foreign = createBooking(bookerId, foreignId, start, start.plusDays(1)).getId();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(ownerId));
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        BookingDecisionBatchDto batch = new BookingDecisionBatchDto(List.of(
+                new BookingDecisionDto(first, true),
+                new BookingDecisionDto(overlapping, true),
+                new BookingDecisionDto(rejected, false),
+                new BookingDecisionDto(foreign, true),
+                new BookingDecisionDto(Long.MAX_VALUE, true)));
+        ResponseEntity<BookingDecisionResultDto[]> response = testRestTemplate.exchange("/bookings",
+                HttpMethod.PATCH, new HttpEntity<>(batch, headers), BookingDecisionResultDto[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertNotNull(response.getBody());
+        assertThat(response.getBody()).extracting(BookingDecisionResultDto::getOutcome).containsExactly(
+                BookingDecisionOutcome.APPROVED, BookingDecisionOutcome.CONFLICT, BookingDecisionOutcome.REJECTED,
+                BookingDecisionOutcome.NOT_OWNER, BookingDecisionOutcome.NOT_FOUND);
+        assertThat(bookingRepository.findStatusById(first)).contains(Status.APPROVED);
+        assertThat(bookingRepository.findStatusById(overlapping)).contains(Status.WAITING);
+        assertThat(bookingRepository.findStatusById(rejected)).contains(Status.REJECTED);
+        assertThat(bookingRepository.findStatusById(foreign)).contains(Status.WAITING);
+    }
+
+    @Test
+    void exportBookingsByOwnerId_shouldStreamWholeHistory() {
+        UserDto ownerDto = new UserDto(null, "Lev Morozov", "lev.export@gmail.com");
+        Long ownerId = testRestTemplate.postForEntity("/users", ownerDto, UserDto.class).getBody().getId();
+        UserDto bookerDto = new UserDto(null, "Lidia Morozova", "lidia.export@gmail.com");
+        Long bookerId = testRestTemplate.postForEntity("/users", bookerDto, UserDto.class).getBody().getId();
+        Long itemId = createItem(ownerId, new ItemDto(null, "Boat", "Rowing boat, two oars", true, null, null)).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            bookingIds.add(createBooking(bookerId, itemId, start.plusDays(i), start.plusDays(i).plusHours(1)).getId());
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(ownerId));
+        ResponseEntity<String> response = testRestTemplate.exchange("/bookings/owner/export?format=CSV",
+                HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().toString()).startsWith("text/csv");
+        assertNotNull(response.getBody());
+        List<String> lines = response.getBody().lines().toList();
+        assertThat(lines.get(0)).isEqualTo(BookingExportServiceImpl.CSV_HEADER);
+        assertThat(lines.subList(1, lines.size())).extracting(line -> Long.valueOf(line.split(",")[0]))
+                .containsExactly(bookingIds.get(2), bookingIds.get(1), bookingIds.get(0));
+        assertThat(lines.get(1)).contains(",Boat,");
+    }
+
+    @Test
+    void createBooking_shouldStoreItemOwnerAndFollowOwnerChange() {
+        UserDto ownerDto = new UserDto(null, "Nina Volkova", "nina.owner@gmail.com");
+        Long ownerId = testRestTemplate.postForEntity("/users", ownerDto, UserDto.class).getBody().getId();
+        UserDto newOwnerDto = new UserDto(null, "Nikita Volkov", "nikita.owner@gmail.com");
+        Long newOwnerId = testRestTemplate.postForEntity("/users", newOwnerDto, UserDto.class).getBody().getId();
+        Long itemId = createItem(ownerId, new ItemDto(null, "Tent", "Two-person tent", true, null, null)).getId();
+        Booking booking = createBooking(newOwnerId, itemId, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT owner_id FROM bookings WHERE id = ?", Long.class,
+                booking.getId())).isEqualTo(ownerId);
+
+        jdbcTemplate.update("UPDATE items SET owner_id = ? WHERE id = ?", newOwnerId, itemId);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT owner_id FROM bookings WHERE id = ?", Long.class,
+                booking.getId())).isEqualTo(newOwnerId);
+    }
+
+    @Test
+    void findById_shouldFetchItemAndBookerButNotItemOwner() {
+        UserDto ownerDto = new UserDto(null, "Oleg Sidorov", "oleg.graph@gmail.com");
+        Long ownerId = testRestTemplate.postForEntity("/users", ownerDto, UserDto.class).getBody().getId();
+        UserDto bookerDto = new UserDto(null, "Olga Sidorova", "olga.graph@gmail.com");
+        Long bookerId = testRestTemplate.postForEntity("/users", bookerDto, UserDto.class).getBody().getId();
+        Long itemId = createItem(ownerId, new ItemDto(null, "Saw", "Hand saw", true, null, null)).getId();
+        Booking created = createBooking(bookerId, itemId, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+
+        Booking booking = bookingRepository.findById(created.getId()).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(booking.getItem())).isTrue();
+        assertThat(Hibernate.isInitialized(booking.getBooker())).isTrue();
+        assertThat(Hibernate.isInitialized(booking.getItem().getOwner())).isFalse();
+        assertThat(booking.getItem().getOwner().getId()).isEqualTo(ownerId);
+    }
+
+    @Test
+    void expireWaiting_shouldRejectOnlyStartedWaitingBookings() {
+        UserDto ownerDto = new UserDto(null, "Egor Belov", "egor.expiry@gmail.com");
+        Long ownerId = testRestTemplate.postForEntity("/users", ownerDto, UserDto.class).getBody().getId();
+        UserDto bookerDto = new UserDto(null, "Elena Belova", "elena.expiry@gmail.com");
+        Long bookerId = testRestTemplate.postForEntity("/users", bookerDto, UserDto.class).getBody().getId();
+        Long itemId = createItem(ownerId, new ItemDto(null, "Kayak", "Two-seat kayak", true, null, null)).getId();
+        Booking started = createBooking(bookerId, itemId, LocalDateTime.now().minusHours(2), LocalDateTime.now().plusHours(2));
+        Booking upcoming = createBooking(bookerId, itemId, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(4));
+
+        int expired = bookingExpiryService.expireWaiting();
+
+        assertThat(expired).isGreaterThanOrEqualTo(1);
+        assertThat(bookingRepository.findStatusById(started.getId())).contains(Status.REJECTED);
+        assertThat(bookingRepository.findStatusById(upcoming.getId())).contains(Status.WAITING);
+    }
+
+    @Test
+    void countBookings_shouldCountEveryStateInOneResponse() {
+        UserDto ownerDto = new UserDto(null, "Roman Gromov", "roman.counts@gmail.com");
+        Long ownerId = testRestTemplate.postForEntity("/users", ownerDto, UserDto.class).getBody().getId();
+        UserDto bookerDto = new UserDto(null, "Rita Gromova", "rita.counts@gmail.com");
+        Long bookerId = testRestTemplate.postForEntity("/users", bookerDto, UserDto.class).getBody().getId();
+        Long itemId = createItem(ownerId, new ItemDto(null, "Tripod", "Camera tripod", true, null, null)).getId();
+        Booking past = createBooking(bookerId, itemId, LocalDateTime.now().minusDays(4), LocalDateTime.now().minusDays(3));
+        createBooking(bookerId, itemId, LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1));
+        Booking future = createBooking(bookerId, itemId, LocalDateTime.now().plusDays(2), LocalDateTime.now().plusDays(3));
+        approveOrRejectBooking(ownerId, past.getId(), true);
+        approveOrRejectBooking(ownerId, future.getId(), false);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(bookerId));
+        ResponseEntity<BookingCountsDto> bookerCounts = testRestTemplate.exchange(
+                "/bookings/counts", HttpMethod.GET, new HttpEntity<>(headers), BookingCountsDto.class);
+        headers.set("X-Sharer-User-Id", String.valueOf(ownerId));
+        ResponseEntity<BookingCountsDto> ownerCounts = testRestTemplate.exchange(
+                "/bookings/owner/counts", HttpMethod.GET, new HttpEntity<>(headers), BookingCountsDto.class);
+
+        BookingCountsDto expected = new BookingCountsDto(3L, 1L, 1L, 1L, 1L, 1L);
+        assertThat(bookerCounts.getBody()).isEqualTo(expected);
+        assertThat(ownerCounts.getBody()).isEqualTo(expected);
+    }
+
     private ItemDto createItem(Long ownerId, ItemDto itemDto) {
         HttpHeaders headers = new HttpHeaders();
         headers.set("X-Sharer-User-Id", String.valueOf(ownerId));
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.server.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.server.config.DatabaseProperties;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BookingPartitionManagerTest {
+
+    private final BookingPartitionProperties partitionProperties = new BookingPartitionProperties();
+    private final DatabaseProperties databaseProperties = new DatabaseProperties();
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final Clock clock = Clock.fixed(Instant.parse("2025-06-15T10:00:00Z"), ZoneOffset.UTC);
+    private BookingPartitionManager partitionManager;
+
+    @BeforeEach
+    void setUp() {
+        partitionProperties.setEnabled(true);
+        partitionProperties.setMonthsAhead(1);
+        databaseProperties.setPostgres(true);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        partitionManager = new BookingPartitionManager(partitionProperties, databaseProperties,
+                transactionTemplate, jdbcTemplate, clock);
+    }
+
+    @Test
+    @DisplayName("Не должен обращаться к базе, если секционирование выключено")
+    void maintain_shouldDoNothing_ifDisabled() {
+        partitionProperties.setEnabled(false);
+
+        partitionManager.maintain();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Должен создать недостающие секции на месяцы вперёд и для строк из секции по умолчанию")
+    void maintain_shouldCreateMissingMonthlyPartitions() {
+        stubPartitions(List.of("bookings_default", "bookings_p2025_06"), List.of(LocalDate.of(2024, 12, 1)));
+
+        partitionManager.maintain();
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("CREATE TABLE bookings_p2024_12 (LIKE bookings INCLUDING DEFAULTS)");
+        order.verify(jdbcTemplate).update(startsWith("WITH moved AS (DELETE FROM bookings_default"),
+                eq(LocalDateTime.of(2024, 12, 1, 0, 0)), eq(LocalDateTime.of(2025, 1, 1, 0, 0)));
+        order.verify(jdbcTemplate).execute("INSERT INTO booking_ids (id) SELECT id FROM bookings_p2024_12");
+        order.verify(jdbcTemplate).execute("ALTER TABLE bookings ATTACH PARTITION bookings_p2024_12 "
+                + "FOR VALUES FROM ('2024-12-01') TO ('2025-01-01')");
+        order.verify(jdbcTemplate).execute("ALTER TABLE bookings ATTACH PARTITION bookings_p2025_07 "
+                + "FOR VALUES FROM ('2025-07-01') TO ('2025-08-01')");
+        verify(jdbcTemplate, never()).execute(contains("bookings_p2025_06"));
+    }
+
+    @Test
+    @DisplayName("Должен под общей блокировкой проверить, не переведена ли таблица другим узлом")
+    void partitionOnStartup_shouldSkipConversion_ifAlreadyPartitionedUnderLock() {
+        stubPartitions(List.of("bookings_p2025_06", "bookings_p2025_07"), List.of());
+
+        partitionManager.partitionOnStartup();
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).queryForList(startsWith("SELECT pg_advisory_xact_lock"), eq("bookings_partitions"));
+        order.verify(jdbcTemplate, atLeastOnce()).queryForObject(startsWith("SELECT c.relkind"), eq(String.class));
+        verify(jdbcTemplate, never()).execute(any(ConnectionCallback.class));
+    }
+
+    @Test
+    @DisplayName("Не должен создавать секцию, которую под блокировкой уже создал другой узел")
+    void maintain_shouldSkipPartition_createdByAnotherNode() {
+        stubPartitions(List.of("bookings_p2025_06"), List.of());
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class)))
+                .thenReturn(List.of("bookings_p2025_06"))
+                .thenReturn(List.of("bookings_p2025_06", "bookings_p2025_07"));
+
+        partitionManager.maintain();
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).queryForList(startsWith("SELECT pg_advisory_xact_lock"), eq("bookings_partitions"));
+        order.verify(jdbcTemplate).queryForList(contains("pg_inherits"), eq(String.class));
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE"));
+    }
+
+    @Test
+    @DisplayName("Должен продолжить обслуживание других месяцев, если секцию одного создать не удалось")
+    void maintain_shouldContinue_ifPartitionFails() {
+        stubPartitions(List.of("bookings_default", "bookings_p2025_06"), List.of(LocalDate.of(2024, 12, 1)));
+        doThrow(new DataIntegrityViolationException("relation \"bookings_p2024_12\" already exists"))
+                .when(jdbcTemplate).execute("CREATE TABLE bookings_p2024_12 (LIKE bookings INCLUDING DEFAULTS)");
+
+        partitionManager.maintain();
+
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER TABLE bookings ATTACH PARTITION bookings_p2024_12"));
+        verify(jdbcTemplate).execute("ALTER TABLE bookings ATTACH PARTITION bookings_p2025_07 "
+                + "FOR VALUES FROM ('2025-07-01') TO ('2025-08-01')");
+    }
+
+    @Test
+    @DisplayName("Должен отсоединить и переименовать секции старше срока хранения")
+    void maintain_shouldDetachPartitionsBeyondRetention() {
+        partitionProperties.setDetachAfterMonths(12);
+        stubPartitions(List.of("bookings_p2024_05", "bookings_p2024_06", "bookings_p2025_06", "bookings_p2025_07"),
+                List.of());
+
+        partitionManager.maintain();
+
+        verify(jdbcTemplate).execute("ALTER TABLE bookings DETACH PARTITION bookings_p2024_05");
+        verify(jdbcTemplate).execute("ALTER TABLE bookings_p2024_05 RENAME TO bookings_archive_p2024_05");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE bookings DETACH PARTITION bookings_p2024_06");
+    }
+
+    private void stubPartitions(List<String> partitions, List<LocalDate> defaultMonths) {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT c.relkind"), eq(String.class))).thenReturn("p");
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class))).thenReturn(partitions);
+        when(jdbcTemplate.queryForList(contains("date_trunc"), eq(LocalDate.class))).thenReturn(defaultMonths);
+        when(jdbcTemplate.update(anyString(), any(), any())).thenReturn(0);
+    }
+}
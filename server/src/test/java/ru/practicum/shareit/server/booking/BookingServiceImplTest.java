@@ -1,5 +1,6 @@
 package ru.practicum.shareit.server.booking;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -7,10 +8,20 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.server.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.booking.dto.BookingPageDto;
+import ru.practicum.shareit.server.booking.enums.BookingDecisionOutcome;
 import ru.practicum.shareit.server.booking.enums.BookingState;
 import ru.practicum.shareit.server.booking.enums.Status;
+import ru.practicum.shareit.server.config.DatabaseProperties;
+import ru.practicum.shareit.server.exception.BookingConflictException;
 import ru.practicum.shareit.server.exception.ForbiddenExcepton;
 import ru.practicum.shareit.server.exception.NotFoundException;
 import ru.practicum.shareit.server.exception.ValidationException;
@@ -22,13 +33,15 @@ import ru.practicum.shareit.server.user.UserRepository;
 import ru.practicum.shareit.server.user.dto.UserDto;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -43,6 +56,16 @@ class BookingServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private BookingRepository bookingRepository;
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
+    @Mock
+    private ItemLockManager itemLockManager;
+    @Spy
+    private BookingProperties bookingProperties = new BookingProperties();
+    @Spy
+    private DatabaseProperties databaseProperties = new DatabaseProperties();
+    @Spy
+    private BookingPartitionProperties partitionProperties = new BookingPartitionProperties();
 
     @InjectMocks
     private BookingServiceImpl bookingService;
@@ -50,6 +73,16 @@ class BookingServiceImplTest {
     @Captor
     private ArgumentCaptor<Booking> bookingArgumentCaptor;
 
+    @BeforeEach
+    void runActionsUnderItemLock() {
+        lenient().when(itemLockManager.withOwnerLock(anyLong(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(itemLockManager.withItemLock(anyLong(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(itemLockManager.withItemLocks(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    }
+
 
     @Test
     @DisplayName("Должен выбросить исключение, если юзер не найден")
@@ -218,44 +251,59 @@ class BookingServiceImplTest {
     @Test
     @DisplayName("Должен выбросить исключение, если юзер не найден")
     void approveOrRejectBooking_shouldThrowException_ifOwnerNotFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", null);
+        User booker = new User(2L, "Irina Ivanova", "irina@gmail.com", null);
+        Item item = new Item(3L, owner, "Отвертка",
+                "Крестовая отвертка", true, null);
+        Booking booking = new Booking(
+                4L,
+                LocalDateTime.of(2025, 1, 3, 12, 15, 10, 0),
+                LocalDateTime.of(2025, 1, 25, 12, 0, 0, 0),
+                item,
+                booker,
+                Status.WAITING
+        );
+        when(bookingRepository.approveIfWaiting(4L, 5L)).thenReturn(0);
+        when(userRepository.existsById(5L)).thenReturn(false);
+
         assertThrows(ForbiddenExcepton.class, () -> bookingService.approveOrRejectBooking(
-                1L, 2L, true));
-        verify(bookingRepository, never()).save(any());
+                5L, booking.getId(), true));
+        verify(bookingRepository, never()).findById(anyLong());
     }
 
     @Test
     @DisplayName("Должен выбросить исключение, если букинг не найден")
     void approveOrRejectBooking_shouldThrowException_ifBookingNotFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+        when(bookingRepository.approveIfWaiting(2L, 1L)).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(true);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> bookingService.approveOrRejectBooking(
                 1L, 2L, true));
-        verify(bookingRepository, never()).save(any());
     }
 
     @Test
-    @DisplayName("Должен выбросить исключение, если вещь не найдена")
-    void approveOrRejectBooking_shouldThrowException_ifItemNotFound() {
-        Item item = new Item(3L, new User(), "Отвертка",
+    @DisplayName("Должен выбросить исключение, если бронирование уже рассмотрено")
+    void approveOrRejectBooking_shouldThrowException_ifAlreadyDecided() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", null);
+        User booker = new User(2L, "Irina Ivanova", "irina@gmail.com", null);
+        Item item = new Item(3L, owner, "Отвертка",
                 "Крестовая отвертка", true, null);
-
         Booking booking = new Booking(
                 4L,
                 LocalDateTime.of(2025, 1, 3, 12, 15, 10, 0),
                 LocalDateTime.of(2025, 1, 25, 12, 0, 0, 0),
                 item,
-                new User(),
-                Status.WAITING
+                booker,
+                Status.APPROVED
         );
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(bookingRepository.rejectIfWaiting(4L, 1L)).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(true);
 
-        assertThrows(NotFoundException.class, () -> bookingService.approveOrRejectBooking(
-                1L, booking.getId(), true));
-        verify(bookingRepository, never()).save(any());
+        assertThrows(BookingConflictException.class, () -> bookingService.approveOrRejectBooking(
+                owner.getId(), booking.getId(), false));
+        verify(itemBookingSummaryService, never()).refresh(any());
     }
 
     @Test
@@ -274,25 +322,51 @@ class BookingServiceImplTest {
                 new User(),
                 Status.WAITING
         );
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(ownerFake));
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.approveIfWaiting(4L, ownerFake.getId())).thenReturn(0);
+        when(userRepository.existsById(ownerFake.getId())).thenReturn(true);
 
         assertThrows(ValidationException.class, () -> bookingService.approveOrRejectBooking(
                 ownerFake.getId(), booking.getId(), true));
 
         verify(bookingRepository, never()).save(any());
+        verify(itemBookingSummaryService, never()).refresh(any());
     }
 
     @Test
-    @DisplayName("Должен установить переданный статус и сохранить корректный букинг")
-    void approveOrRejectBooking_shouldSetStatusAndSaveCorrectBooking() {
-        //given
+    @DisplayName("Должен подтвердить букинг одним условным обновлением")
+    void approveOrRejectBooking_shouldApproveWithConditionalUpdate() {
         User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", null);
         User booker = new User(2L, "Irina Ivanova", "irina@gmail.com", null);
         Item item = new Item(3L, owner, "Отвертка",
                 "Крестовая отвертка", true, null);
+        Booking booking = new Booking(
+                4L,
+                LocalDateTime.of(2025, 1, 3, 12, 15, 10, 0),
+                LocalDateTime.of(2025, 1, 25, 12, 0, 0, 0),
+                item,
+                booker,
+                Status.WAITING
+        );
+        when(bookingRepository.approveIfWaiting(4L, 1L)).thenReturn(1);
+        when(bookingRepository.findRowById(4L)).thenReturn(Optional.of(bookingRow(booking, Status.APPROVED)));
+
+        bookingService.approveOrRejectBooking(owner.getId(), booking.getId(), true);
+
+        verify(bookingRepository, times(1)).approveIfWaiting(4L, 1L);
+        verify(bookingRepository, never()).findById(anyLong());
+        verify(bookingRepository, never()).rejectIfWaiting(anyLong(), anyLong());
+        verify(bookingRepository, never()).save(any());
+        verify(itemBookingSummaryService, never()).refresh(any());
+    }
 
+    @Test
+    @DisplayName("Должен отклонить букинг одним условным обновлением")
+    void approveOrRejectBooking_shouldRejectWithConditionalUpdate() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", null);
+        User booker = new User(2L, "Irina Ivanova", "irina@gmail.com", null);
+        Item item = new Item(3L, owner, "Отвертка",
+                "Крестовая отвертка", true, null);
         Booking booking = new Booking(
                 4L,
                 LocalDateTime.of(2025, 1, 3, 12, 15, 10, 0),
@@ -301,34 +375,260 @@ class BookingServiceImplTest {
                 booker,
                 Status.WAITING
         );
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.rejectIfWaiting(4L, 1L)).thenReturn(1);
+        when(bookingRepository.findRowById(4L)).thenReturn(Optional.of(bookingRow(booking, Status.REJECTED)));
+
+        BookingDto bookingDtoActual = bookingService.approveOrRejectBooking(owner.getId(), booking.getId(), false);
+
+        assertThat(bookingDtoActual.getStatus(), equalTo(Status.REJECTED));
+        verify(bookingRepository, never()).approveIfWaiting(anyLong(), anyLong());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Должен создать пачку бронирований одним saveAll под блокировками всех вещей")
+    void createBatch_shouldSaveAllBookingsAtOnce() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", null);
+        User booker = new User(2L, "Irina Ivanova", "irina@gmail.com", null);
+        Item tent = new Item(3L, owner, "Палатка", "Двухместная палатка", true, null);
+        Item stove = new Item(4L, owner, "Горелка", "Газовая горелка", true, null);
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 10, 0);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findAllById(Set.of(3L, 4L))).thenReturn(List.of(tent, stove));
+        when(bookingRepository.findApprovedPeriods(Set.of(3L, 4L), start, start.plusDays(4)))
+                .thenReturn(List.of(bookingPeriod(3L, start.plusDays(5), start.plusDays(6))));
+        when(bookingRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BookingDto> created = bookingService.createBatch(2L, List.of(
+                new BookingDto(99L, start, start.plusDays(2), 3L, null, null, null),
+                new BookingDto(null, start.plusDays(2), start.plusDays(4), 3L, null, null, null),
+                new BookingDto(null, start, start.plusDays(2), 4L, null, null, null)));
+
+        assertThat(created.size(), equalTo(3));
+        assertTrue(created.stream().allMatch(booking -> booking.getStatus() == Status.WAITING));
+        assertThat(created.get(0).getId(), nullValue());
+        assertThat(created.get(2).getItem().getName(), equalTo("Горелка"));
+        verify(itemLockManager).withItemLocks(eq(Set.of(3L, 4L)), any());
+        verify(itemBookingSummaryService).refresh(Set.of(3L, 4L));
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Должен выбросить исключение, если одна из вещей пачки не найдена")
+    void createBatch_shouldThrowException_ifItemNotFound() {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 10, 0);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(new User()));
+        when(itemRepository.findAllById(Set.of(3L))).thenReturn(List.of());
+
+        assertThrows(NotFoundException.class, () -> bookingService.createBatch(2L, List.of(
+                new BookingDto(null, start, start.plusDays(1), 3L, null, null, null))));
+        verify(bookingRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Должен выбросить исключение, если бронирования одной вещи в пачке пересекаются")
+    void createBatch_shouldThrowException_ifBookingsOverlapWithinBatch() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", null);
+        Item tent = new Item(3L, owner, "Палатка", "Двухместная палатка", true, null);
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 10, 0);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(new User()));
+        when(itemRepository.findAllById(Set.of(3L))).thenReturn(List.of(tent));
+
+        assertThrows(ValidationException.class, () -> bookingService.createBatch(2L, List.of(
+                new BookingDto(null, start.plusDays(1), start.plusDays(3), 3L, null, null, null),
+                new BookingDto(null, start, start.plusDays(2), 3L, null, null, null))));
+        verify(itemLockManager, never()).withItemLocks(any(), any());
+    }
+
+    @Test
+    @DisplayName("Должен выбросить исключение, если бронирование пачки пересекается с подтвержденным")
+    void createBatch_shouldThrowException_ifApprovedBookingOverlaps() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", null);
+        Item tent = new Item(3L, owner, "Палатка", "Двухместная палатка", true, null);
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 10, 0);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(new User()));
+        when(itemRepository.findAllById(Set.of(3L))).thenReturn(List.of(tent));
+        when(bookingRepository.findApprovedPeriods(any(), any(), any()))
+                .thenReturn(List.of(bookingPeriod(3L, start.minusDays(1), start.plusHours(1))));
+
+        assertThrows(BookingConflictException.class, () -> bookingService.createBatch(2L, List.of(
+                new BookingDto(null, start, start.plusDays(1), 3L, null, null, null))));
+        verify(bookingRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Должен выбросить исключение при пустой, слишком большой пачке или некорректном периоде")
+    void createBatch_shouldThrowException_ifBatchIsInvalid() {
+        bookingProperties.setMaxCreateBatchSize(1);
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 10, 0);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(new User()));
+
+        assertThrows(ValidationException.class, () -> bookingService.createBatch(2L, List.of()));
+        assertThrows(ValidationException.class, () -> bookingService.createBatch(2L, List.of(
+                new BookingDto(null, start, start.plusDays(1), 3L, null, null, null),
+                new BookingDto(null, start.plusDays(2), start.plusDays(3), 3L, null, null, null))));
+        assertThrows(ValidationException.class, () -> bookingService.createBatch(2L, List.of(
+                new BookingDto(null, start, start, 3L, null, null, null))));
+        verify(itemRepository, never()).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("Должен выбросить исключение, если вещь уже забронирована на эти даты")
+    void create_shouldThrowException_ifApprovedBookingOverlaps() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", null);
+        User booker = new User(2L, "Irina Ivanova", "irina@gmail.com", null);
+        Item item = new Item(3L, owner, "Отвертка",
+                "Крестовая отвертка", true, null);
+
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.existsApprovedOverlap(eq(3L), any(), any(), isNull())).thenReturn(true);
 
-        Booking bookingExpected = new Booking(
+        BookingDto bookingDto = new BookingDto(
+                null,
+                LocalDateTime.of(2025, 1, 3, 12, 15, 10, 0),
+                LocalDateTime.of(2025, 1, 25, 12, 0, 0, 0),
+                3L,
+                null,
+                null,
+                null
+        );
+
+        assertThrows(BookingConflictException.class, () -> bookingService.create(booker.getId(), bookingDto));
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Должен выбросить исключение при подтверждении пересекающегося бронирования")
+    void approveOrRejectBooking_shouldThrowException_ifApprovedBookingOverlaps() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", null);
+        User booker = new User(2L, "Irina Ivanova", "irina@gmail.com", null);
+        Item item = new Item(3L, owner, "Отвертка",
+                "Крестовая отвертка", true, null);
+        Booking booking = new Booking(
                 4L,
                 LocalDateTime.of(2025, 1, 3, 12, 15, 10, 0),
                 LocalDateTime.of(2025, 1, 25, 12, 0, 0, 0),
                 item,
                 booker,
-                Status.APPROVED
+                Status.WAITING
         );
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.approveIfWaiting(4L, 1L)).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(true);
 
-        //when
-        bookingService.approveOrRejectBooking(owner.getId(), booking.getId(), true);
+        assertThrows(BookingConflictException.class, () -> bookingService.approveOrRejectBooking(
+                owner.getId(), booking.getId(), true));
+        verify(itemBookingSummaryService, never()).refresh(any());
+    }
 
-        //then
-        verify(bookingRepository, times(1)).save(bookingArgumentCaptor.capture());
-        Booking bookingActual = bookingArgumentCaptor.getValue();
+    @Test
+    @DisplayName("Должен выбросить исключение, если база отклонила пересекающееся бронирование")
+    void approveOrRejectBooking_shouldThrowException_ifExclusionConstraintViolated() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", null);
+        User booker = new User(2L, "Irina Ivanova", "irina@gmail.com", null);
+        Item item = new Item(3L, owner, "Отвертка",
+                "Крестовая отвертка", true, null);
+        Booking booking = new Booking(
+                4L,
+                LocalDateTime.of(2025, 1, 3, 12, 15, 10, 0),
+                LocalDateTime.of(2025, 1, 25, 12, 0, 0, 0),
+                item,
+                booker,
+                Status.WAITING
+        );
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.approveIfWaiting(4L, 1L)).thenThrow(new DataIntegrityViolationException(
+                "conflicting key value violates exclusion constraint \"ex_bookings_item_approved_period\""));
 
-        assertThat(bookingActual, notNullValue());
-        assertThat(bookingExpected.getId(), equalTo(bookingActual.getId()));
-        assertThat(bookingExpected.getStart(), equalTo(bookingActual.getStart()));
-        assertThat(bookingExpected.getEnd(), equalTo(bookingActual.getEnd()));
-        assertThat(bookingExpected.getItem(), equalTo(bookingActual.getItem()));
-        assertThat(bookingExpected.getBooker(), equalTo(bookingActual.getBooker()));
-        assertThat(bookingExpected.getStatus(), equalTo(bookingActual.getStatus()));
+        assertThrows(BookingConflictException.class, () -> bookingService.approveOrRejectBooking(
+                owner.getId(), booking.getId(), true));
+        verify(itemBookingSummaryService, never()).refresh(any());
+    }
+
+    @Test
+    @DisplayName("Должен на Postgres собрать ответ из RETURNING условного обновления без других запросов")
+    void approveOrRejectBooking_shouldBuildDtoFromReturning_onPostgres() {
+        databaseProperties.setPostgres(true);
+        DecidedBooking decided = mock(DecidedBooking.class);
+        when(decided.getId()).thenReturn(4L);
+        when(decided.getStatus()).thenReturn(Status.APPROVED);
+        when(decided.getItemId()).thenReturn(3L);
+        when(decided.getItemName()).thenReturn("Отвертка");
+        when(decided.getBookerId()).thenReturn(2L);
+        when(bookingRepository.approveIfWaitingReturning(4L, 1L)).thenReturn(Optional.of(decided));
+
+        BookingDto bookingDto = bookingService.approveOrRejectBooking(1L, 4L, true);
+
+        assertThat(bookingDto.getId(), equalTo(4L));
+        assertThat(bookingDto.getStatus(), equalTo(Status.APPROVED));
+        assertThat(bookingDto.getItem().getName(), equalTo("Отвертка"));
+        assertThat(bookingDto.getBooker().getId(), equalTo(2L));
+        verify(bookingRepository, never()).approveIfWaiting(anyLong(), anyLong());
+        verify(bookingRepository, never()).findById(anyLong());
+        verify(bookingRepository, never()).findRowById(anyLong());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Должен при секционировании подтверждать бронирование под блокировкой вещи")
+    void approveOrRejectBooking_shouldApproveUnderItemLock_ifPartitioned() {
+        partitionProperties.setEnabled(true);
+        databaseProperties.setPostgres(true);
+        DecidedBooking decided = mock(DecidedBooking.class);
+        when(decided.getId()).thenReturn(4L);
+        when(decided.getStatus()).thenReturn(Status.APPROVED);
+        when(bookingRepository.findItemIdById(4L)).thenReturn(Optional.of(3L));
+        when(bookingRepository.approveIfWaitingReturning(4L, 1L)).thenReturn(Optional.of(decided));
+
+        BookingDto bookingDto = bookingService.approveOrRejectBooking(1L, 4L, true);
+
+        assertThat(bookingDto.getStatus(), equalTo(Status.APPROVED));
+        verify(itemLockManager).withItemLock(eq(3L), any());
+    }
 
+    @Test
+    @DisplayName("Должен при секционировании подтверждать бронирования из разных месяцев под одной блокировкой вещи")
+    void approveOrRejectBooking_shouldLockItem_forCrossMonthOverlap_ifPartitioned() {
+        partitionProperties.setEnabled(true);
+        databaseProperties.setPostgres(true);
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", null);
+        User booker = new User(2L, "Irina Ivanova", "irina@gmail.com", null);
+        Item item = new Item(3L, owner, "Отвертка", "Крестовая отвертка", true, null);
+        Booking february = new Booking(5L, LocalDateTime.of(2025, 2, 1, 12, 0), LocalDateTime.of(2025, 2, 3, 12, 0),
+                item, booker, Status.WAITING);
+        DecidedBooking january = mock(DecidedBooking.class);
+        when(january.getId()).thenReturn(4L);
+        when(january.getStatus()).thenReturn(Status.APPROVED);
+        when(bookingRepository.findItemIdById(4L)).thenReturn(Optional.of(3L));
+        when(bookingRepository.findItemIdById(5L)).thenReturn(Optional.of(3L));
+        when(bookingRepository.approveIfWaitingReturning(4L, 1L)).thenReturn(Optional.of(january));
+        when(bookingRepository.approveIfWaitingReturning(5L, 1L)).thenReturn(Optional.empty());
+        when(bookingRepository.findById(5L)).thenReturn(Optional.of(february));
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        bookingService.approveOrRejectBooking(1L, 4L, true);
+        BookingConflictException exception = assertThrows(BookingConflictException.class,
+                () -> bookingService.approveOrRejectBooking(1L, 5L, true));
+
+        assertThat(exception.getMessage(), equalTo("Вещь с id 3 уже забронирована на эти даты"));
+        verify(itemLockManager, times(2)).withItemLock(eq(3L), any());
+    }
+
+    @Test
+    @DisplayName("Должен при секционировании отклонять бронирование без блокировки вещи")
+    void approveOrRejectBooking_shouldRejectWithoutItemLock_ifPartitioned() {
+        partitionProperties.setEnabled(true);
+        when(bookingRepository.rejectIfWaiting(4L, 1L)).thenReturn(1);
+        Booking booking = new Booking(4L, LocalDateTime.of(2025, 1, 3, 12, 0), LocalDateTime.of(2025, 1, 5, 12, 0),
+                new Item(3L, new User(1L, "Ivan Ivanov", "ivan@gmail.com", null), "Отвертка", "Крестовая", true, null),
+                new User(2L, "Irina Ivanova", "irina@gmail.com", null), Status.WAITING);
+        when(bookingRepository.findRowById(4L)).thenReturn(Optional.of(bookingRow(booking, Status.REJECTED)));
+
+        bookingService.approveOrRejectBooking(1L, 4L, false);
+
+        verify(bookingRepository, never()).findItemIdById(anyLong());
+        verify(itemLockManager, never()).withItemLock(anyLong(), any());
     }
 
     @Test
@@ -348,9 +648,8 @@ class BookingServiceImplTest {
                 booker,
                 Status.WAITING
         );
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.approveIfWaiting(4L, 1L)).thenReturn(1);
+        when(bookingRepository.findRowById(4L)).thenReturn(Optional.of(bookingRow(booking, Status.APPROVED)));
 
         ItemDto itemDto = new ItemDto(
                 item.getId(),
@@ -482,77 +781,172 @@ class BookingServiceImplTest {
     }
 
     @Test
-    @DisplayName("Должен выбросить исключение, если юзер не найден")
-    void getBookingsByBookerIdWithFilter_shouldThrowException_ifOwnerNotFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
-        assertThrows(ForbiddenExcepton.class, () -> bookingService.getBookingsByBookerIdWithFilter(
-                1L, BookingState.ALL));
+    @DisplayName("Должен рассмотреть пачку бронирований батчами условных UPDATE и вернуть результат по каждому id")
+    void decideBookings_shouldApplyBatchAndReturnResultPerId() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(new User()));
+        when(bookingRepository.findDecisionTargets(Set.of(1L, 2L, 3L, 4L, 5L, 6L))).thenReturn(List.of(
+                decisionTarget(1L, 10L, 7L, Status.WAITING),
+                decisionTarget(2L, 10L, 7L, Status.WAITING),
+                decisionTarget(3L, 11L, 7L, Status.WAITING),
+                decisionTarget(4L, 12L, 8L, Status.WAITING),
+                decisionTarget(6L, 11L, 7L, Status.WAITING)));
+        when(bookingRepository.approveAllIfWaiting(List.of(1L, 2L), 7L)).thenReturn(new int[]{1, 0});
+        when(bookingRepository.rejectAllIfWaiting(List.of(3L, 6L), 7L)).thenReturn(new int[]{1, 0});
+        when(bookingRepository.findDecisionTargets(List.of(2L, 6L))).thenReturn(List.of(
+                decisionTarget(2L, 10L, 7L, Status.WAITING),
+                decisionTarget(6L, 11L, 7L, Status.CANCELED)));
+
+        List<BookingDecisionResultDto> results = bookingService.decideBookings(7L, List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, true),
+                new BookingDecisionDto(3L, false),
+                new BookingDecisionDto(4L, true),
+                new BookingDecisionDto(5L, false),
+                new BookingDecisionDto(6L, false)));
+
+        assertThat(results, equalTo(List.of(
+                new BookingDecisionResultDto(1L, BookingDecisionOutcome.APPROVED, Status.APPROVED),
+                new BookingDecisionResultDto(2L, BookingDecisionOutcome.CONFLICT, Status.WAITING),
+                new BookingDecisionResultDto(3L, BookingDecisionOutcome.REJECTED, Status.REJECTED),
+                new BookingDecisionResultDto(4L, BookingDecisionOutcome.NOT_OWNER, null),
+                new BookingDecisionResultDto(5L, BookingDecisionOutcome.NOT_FOUND, null),
+                new BookingDecisionResultDto(6L, BookingDecisionOutcome.ALREADY_DECIDED, Status.CANCELED))));
+        verify(itemLockManager).withItemLocks(eq(Set.of(10L, 11L)), any());
+        verify(itemBookingSummaryService, never()).refresh(any());
     }
 
     @Test
-    @DisplayName("Должен вызвать метод findByBookerIdOrderByStartDesc, когда state = ALL")
-    void getBookingsByBookerIdWithFilter_shouldCallRelevantMethod_ifStateIsALL() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+    @DisplayName("Должен вернуть NOT_FOUND и NOT_OWNER, если бронирование удалили или передали другому владельцу до обновления")
+    void decideBookings_shouldReportBookingsChangedBeforeUpdate() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(new User()));
+        when(bookingRepository.findDecisionTargets(Set.of(1L, 2L))).thenReturn(List.of(
+                decisionTarget(1L, 10L, 7L, Status.WAITING),
+                decisionTarget(2L, 11L, 7L, Status.WAITING)));
+        when(bookingRepository.approveAllIfWaiting(List.of(1L, 2L), 7L)).thenReturn(new int[]{0, 0});
+        when(bookingRepository.rejectAllIfWaiting(List.of(), 7L)).thenReturn(new int[0]);
+        when(bookingRepository.findDecisionTargets(List.of(1L, 2L)))
+                .thenReturn(List.of(decisionTarget(2L, 11L, 8L, Status.WAITING)));
+
+        List<BookingDecisionResultDto> results = bookingService.decideBookings(7L, List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, true)));
+
+        assertThat(results, equalTo(List.of(
+                new BookingDecisionResultDto(1L, BookingDecisionOutcome.NOT_FOUND, null),
+                new BookingDecisionResultDto(2L, BookingDecisionOutcome.NOT_OWNER, null))));
+    }
 
-        bookingService.getBookingsByBookerIdWithFilter(1L, BookingState.ALL);
+    @Test
+    @DisplayName("Не должен брать блокировки, если среди бронирований нет бронирований владельца")
+    void decideBookings_shouldSkipUpdates_ifNothingBelongsToOwner() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(new User()));
+        when(bookingRepository.findDecisionTargets(Set.of(4L)))
+                .thenReturn(List.of(decisionTarget(4L, 12L, 8L, Status.WAITING)));
+
+        List<BookingDecisionResultDto> results = bookingService.decideBookings(7L,
+                List.of(new BookingDecisionDto(4L, true)));
+
+        assertThat(results, equalTo(List.of(
+                new BookingDecisionResultDto(4L, BookingDecisionOutcome.NOT_OWNER, null))));
+        verify(itemLockManager, never()).withItemLocks(any(), any());
+        verify(bookingRepository, never()).approveAllIfWaiting(any(), any());
+    }
 
-        verify(bookingRepository, times(1))
-                .findByBookerIdOrderByStartDesc(1L);
+    @Test
+    @DisplayName("Должен выбросить исключение при пустой, слишком большой или повторяющейся пачке решений")
+    void decideBookings_shouldThrowException_ifBatchIsInvalid() {
+        bookingProperties.setMaxDecisionBatchSize(2);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(new User()));
+
+        assertThrows(ValidationException.class, () -> bookingService.decideBookings(7L, List.of()));
+        assertThrows(ValidationException.class, () -> bookingService.decideBookings(7L, List.of(
+                new BookingDecisionDto(1L, true), new BookingDecisionDto(2L, true), new BookingDecisionDto(3L, true))));
+        assertThrows(ValidationException.class, () -> bookingService.decideBookings(7L, List.of(
+                new BookingDecisionDto(1L, true), new BookingDecisionDto(1L, false))));
+        assertThrows(ValidationException.class, () -> bookingService.decideBookings(7L, List.of(
+                new BookingDecisionDto(1L, null))));
+        verify(bookingRepository, never()).findDecisionTargets(any());
     }
 
     @Test
-    @DisplayName("Должен вызвать метод findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc, когда state = CURRENT")
-    void getBookingsByBookerIdWithFilter_shouldCallRelevantMethod_ifStateIsCURRENT() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+    @DisplayName("Должен выбросить исключение при рассмотрении пачки, если владелец не найден")
+    void decideBookings_shouldThrowException_ifOwnerNotFound() {
+        when(userRepository.findById(7L)).thenReturn(Optional.empty());
 
-        bookingService.getBookingsByBookerIdWithFilter(1L, BookingState.CURRENT);
+        assertThrows(ForbiddenExcepton.class, () -> bookingService.decideBookings(7L,
+                List.of(new BookingDecisionDto(1L, true))));
+    }
 
-        verify(bookingRepository, times(1))
-                .findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(eq(1L), any(), any());
+    @Test
+    @DisplayName("Должен выбросить исключение, если юзер не найден")
+    void getBookingsByBookerIdWithFilter_shouldThrowException_ifOwnerNotFound() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        assertThrows(ForbiddenExcepton.class, () -> bookingService.getBookingsByBookerIdWithFilter(
+                1L, BookingFilter.of(BookingState.ALL), null, null, null));
     }
 
     @Test
-    @DisplayName("Должен вызвать метод findByBookerIdAndEndBeforeOrderByStartDesc, когда state = PAST")
-    void getBookingsByBookerIdWithFilter_shouldCallRelevantMethod_ifStateIsPAST() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+    @DisplayName("Должен вернуть страницу размера size и курсор на следующую")
+    void getBookingsByBookerIdWithFilter_shouldReturnPageAndNextCursor() {
+        User booker = new User(2L, "Irina Ivanova", "irina@gmail.com", null);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 3, 12, 0);
+        List<BookingRow> bookings = List.of(
+                bookingRow(6L, start.plusDays(2), booker),
+                bookingRow(5L, start.plusDays(1), booker),
+                bookingRow(4L, start, booker));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
+        when(bookingRepository.findRows(any(), eq(1), eq(Limit.of(3)))).thenReturn(bookings);
 
-        bookingService.getBookingsByBookerIdWithFilter(1L, BookingState.PAST);
+        BookingPageDto page = bookingService.getBookingsByBookerIdWithFilter(2L, BookingFilter.of(BookingState.ALL), 1, 2, null);
 
-        verify(bookingRepository, times(1))
-                .findByBookerIdAndEndBeforeOrderByStartDesc(eq(1L), any());
+        assertThat(page.getBookings().stream().map(BookingDto::getId).toList(), equalTo(List.of(6L, 5L)));
+        assertThat(BookingCursor.decode(page.getNextCursor()), equalTo(BookingCursor.after(bookings.get(1))));
     }
 
     @Test
-    @DisplayName("Должен вызвать метод findByBookerIdAndStartAfterOrderByStartDesc, когда state = FUTURE")
-    void getBookingsByBookerIdWithFilter_shouldCallRelevantMethod_ifStateIsFUTURE() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+    @DisplayName("Должен собрать BookingDto из строки списка без загрузки сущностей")
+    void getBookingsByBookerIdWithFilter_shouldMapRowsToDto() {
+        User booker = new User(2L, "Irina Ivanova", "irina@gmail.com", null);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 3, 12, 0);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
+        when(bookingRepository.findRows(any(), eq(0), eq(Limit.unlimited())))
+                .thenReturn(List.of(bookingRow(4L, start, booker)));
 
-        bookingService.getBookingsByBookerIdWithFilter(1L, BookingState.FUTURE);
+        BookingPageDto page = bookingService.getBookingsByBookerIdWithFilter(2L, BookingFilter.of(BookingState.ALL), null, null, null);
 
-        verify(bookingRepository, times(1))
-                .findByBookerIdAndStartAfterOrderByStartDesc(eq(1L), any());
+        BookingDto expected = new BookingDto(4L, start, start.plusDays(1), 3L,
+                new ItemDto(3L, "Отвертка", "Крестовая отвертка", true, null, null),
+                new UserDto(2L, "Irina Ivanova", "irina@gmail.com"), Status.WAITING);
+        assertThat(page.getBookings(), equalTo(List.of(expected)));
+        verify(bookingRepository, never()).findById(anyLong());
+        verifyNoInteractions(itemRepository);
     }
 
     @Test
-    @DisplayName("Должен вызвать метод findByBookerIdAndStartAfterOrderByStartDesc, когда state = WAITING")
-    void getBookingsByBookerIdWithFilter_shouldCallRelevantMethod_ifStateIsWAITING() {
+    @DisplayName("Должен продолжить выдачу после переданного курсора")
+    void getBookingsByBookerIdWithFilter_shouldContinueAfterCursor() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2025, 1, 3, 12, 0), 5L);
 
-        bookingService.getBookingsByBookerIdWithFilter(1L, BookingState.WAITING);
+        BookingPageDto page = bookingService.getBookingsByBookerIdWithFilter(
+                1L, BookingFilter.of(BookingState.ALL), null, 10, cursor.encode());
 
-        verify(bookingRepository, times(1))
-                .findByBookerIdAndStatusOrderByStartDesc(eq(1L), any());
+        verify(bookingRepository, times(1)).findRows(any(), eq(0), eq(Limit.of(11)));
+        assertTrue(page.getBookings().isEmpty());
+        assertThat(page.getNextCursor(), nullValue());
     }
 
     @Test
-    @DisplayName("Должен вызвать метод findByBookerIdAndStatusOrderByStartDesc, когда state = REJECTED")
-    void getBookingsByBookerIdWithFilter_shouldCallRelevantMethod_ifStateIsREJECTED() {
+    @DisplayName("Должен выбросить исключение при некорректных параметрах пагинации")
+    void getBookingsByBookerIdWithFilter_shouldThrowException_ifPagingIsInvalid() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
 
-        bookingService.getBookingsByBookerIdWithFilter(1L, BookingState.REJECTED);
-
-        verify(bookingRepository, times(1))
-                .findByBookerIdAndStatusOrderByStartDesc(eq(1L), any());
+        assertThrows(ValidationException.class, () -> bookingService.getBookingsByBookerIdWithFilter(
+                1L, BookingFilter.of(BookingState.ALL), -1, 10, null));
+        assertThrows(ValidationException.class, () -> bookingService.getBookingsByBookerIdWithFilter(
+                1L, BookingFilter.of(BookingState.ALL), 0, 0, null));
+        assertThrows(ValidationException.class, () -> bookingService.getBookingsByBookerIdWithFilter(
+                1L, BookingFilter.of(BookingState.ALL), null, null, "not-a-cursor"));
     }
 
     @Test
@@ -560,141 +954,142 @@ class BookingServiceImplTest {
     void getBookingsByOwnerIdWithFilter_shouldThrowException_ifOwnerNotFound() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
         assertThrows(ForbiddenExcepton.class, () -> bookingService.getBookingsByOwnerIdWithFilter(
-                1L, BookingState.ALL));
+                1L, BookingFilter.of(BookingState.ALL), null, null, null));
     }
 
     @Test
-    @DisplayName("Должен вернуть пустой лист, если у юзера нет вещей")
-    void getBookingsByOwnerIdWithFilter_shouldReturnEmptyList_ifOwnerDasNotHaveItems() {
-        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+    @DisplayName("Должен выполнить один запрос для фильтра из нескольких условий")
+    void getBookingsByOwnerIdWithFilter_shouldRunSingleQueryForCombinedFilter() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+        BookingFilter filter = new BookingFilter(BookingState.FUTURE, Status.WAITING, 3L,
+                LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 4, 1, 0, 0));
 
-        List<BookingDto> bookingDtoList = bookingService.getBookingsByOwnerIdWithFilter(
-                1L, BookingState.ALL);
+        BookingPageDto page = bookingService.getBookingsByOwnerIdWithFilter(1L, filter, null, 5, null);
 
-        assertTrue(bookingDtoList.isEmpty());
+        verify(bookingRepository, times(1)).findRows(notNull(), eq(0), eq(Limit.of(6)));
+        assertTrue(page.getBookings().isEmpty());
     }
 
-
     @Test
-    @DisplayName("Должен вызвать метод findByItemOwnerIdOrderByStartDesc, когда state = ALL")
-    void getBookingsByOwnerIdWithFilter_shouldCallRelevantMethod_ifStateIsALL() {
-
-        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
-        Item item1 = new Item(2L, owner, "Отвертка",
-                "Крестовая отвертка", true, null);
-        Item item2 = new Item(3L, owner, "Шуруповерт",
-                "Красный шупуповерт", true, null);
-        owner.getItems().add(item1);
-        owner.getItems().add(item2);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
-
-        bookingService.getBookingsByOwnerIdWithFilter(owner.getId(), BookingState.ALL);
+    @DisplayName("Должен выбросить исключение, если начало периода не раньше его окончания")
+    void getBookingsByBookerIdWithFilter_shouldThrowException_ifRangeIsInvalid() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+        LocalDateTime point = LocalDateTime.of(2025, 3, 1, 0, 0);
+        BookingFilter filter = new BookingFilter(BookingState.ALL, null, null, point, point);
 
-        verify(bookingRepository, times(1))
-                .findByItemOwnerIdOrderByStartDesc(owner.getId());
+        assertThrows(ValidationException.class, () -> bookingService.getBookingsByBookerIdWithFilter(
+                1L, filter, null, null, null));
+        verify(bookingRepository, never()).findRows(any(), anyInt(), any());
     }
 
     @Test
-    @DisplayName("Должен вызвать метод findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc, " +
-            "когда state = CURRENT")
-    void getBookingsByOwnerIdWithFilter_shouldCallRelevantMethod_ifStateIsCURRENT() {
-
-        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
-        Item item1 = new Item(2L, owner, "Отвертка",
-                "Крестовая отвертка", true, null);
-        Item item2 = new Item(3L, owner, "Шуруповерт",
-                "Красный шупуповерт", true, null);
-        owner.getItems().add(item1);
-        owner.getItems().add(item2);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
-
-        bookingService.getBookingsByOwnerIdWithFilter(owner.getId(), BookingState.CURRENT);
-
-        verify(bookingRepository, times(1))
-                .findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(eq(owner.getId()), any(), any());
+    @DisplayName("Должен вернуть количество бронирований заказчика по статусам одним запросом")
+    void countBookingsByBookerId_shouldReturnCountsFromSingleQuery() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(bookingRepository.countBookerStates(eq(1L), any())).thenReturn(stateCounts(6L, 1L, 2L, 3L, 1L, 1L));
+
+        assertThat(bookingService.countBookingsByBookerId(1L),
+                equalTo(new BookingCountsDto(6L, 1L, 2L, 3L, 1L, 1L)));
+        verify(bookingRepository, never()).findRows(any(), anyInt(), any());
     }
 
     @Test
-    @DisplayName("Должен вызвать метод findByItemOwnerIdAndEndBeforeOrderByStartDesc, когда state = PAST")
-    void getBookingsByOwnerIdWithFilter_shouldCallRelevantMethod_ifStateIsPAST() {
-
-        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
-        Item item1 = new Item(2L, owner, "Отвертка",
-                "Крестовая отвертка", true, null);
-        Item item2 = new Item(3L, owner, "Шуруповерт",
-                "Красный шупуповерт", true, null);
-        owner.getItems().add(item1);
-        owner.getItems().add(item2);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
-
-        bookingService.getBookingsByOwnerIdWithFilter(owner.getId(), BookingState.PAST);
+    @DisplayName("Должен выбросить исключение при подсчёте бронирований, если владелец не найден")
+    void countBookingsByOwnerId_shouldThrowException_ifOwnerNotFound() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
 
-        verify(bookingRepository, times(1))
-                .findByItemOwnerIdAndEndBeforeOrderByStartDesc(eq(owner.getId()), any());
+        assertThrows(ForbiddenExcepton.class, () -> bookingService.countBookingsByOwnerId(1L));
+        verify(bookingRepository, never()).countOwnerStates(any(), any());
     }
 
-    @Test
-    @DisplayName("Должен вызвать метод findByItemOwnerIdAndStartAfterOrderByStartDesc, когда state = FUTURE")
-    void getBookingsByOwnerIdWithFilter_shouldCallRelevantMethod_ifStateIsFUTURE() {
-
-        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
-        Item item1 = new Item(2L, owner, "Отвертка",
-                "Крестовая отвертка", true, null);
-        Item item2 = new Item(3L, owner, "Шуруповерт",
-                "Красный шупуповерт", true, null);
-        owner.getItems().add(item1);
-        owner.getItems().add(item2);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
-
-        bookingService.getBookingsByOwnerIdWithFilter(owner.getId(), BookingState.FUTURE);
-
-        verify(bookingRepository, times(1))
-                .findByItemOwnerIdAndStartAfterOrderByStartDesc(eq(owner.getId()), any());
+    private static BookingStateCounts stateCounts(Long all, Long current, Long past, Long future,
+                                                  Long waiting, Long rejected) {
+        return new BookingStateCounts() {
+            @Override
+            public Long getAll() {
+                return all;
+            }
+
+            @Override
+            public Long getCurrent() {
+                return current;
+            }
+
+            @Override
+            public Long getPast() {
+                return past;
+            }
+
+            @Override
+            public Long getFuture() {
+                return future;
+            }
+
+            @Override
+            public Long getWaiting() {
+                return waiting;
+            }
+
+            @Override
+            public Long getRejected() {
+                return rejected;
+            }
+        };
     }
 
-    @Test
-    @DisplayName("Должен вызвать метод findByItemOwnerIdAndStatusOrderByStartDesc, когда state = WAITING")
-    void getBookingsByOwnerIdWithFilter_shouldCallRelevantMethod_ifStateIsWAITING() {
-
-        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
-        Item item1 = new Item(2L, owner, "Отвертка",
-                "Крестовая отвертка", true, null);
-        Item item2 = new Item(3L, owner, "Шуруповерт",
-                "Красный шупуповерт", true, null);
-        owner.getItems().add(item1);
-        owner.getItems().add(item2);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
-
-        bookingService.getBookingsByOwnerIdWithFilter(owner.getId(), BookingState.WAITING);
-
-        verify(bookingRepository, times(1))
-                .findByItemOwnerIdAndStatusOrderByStartDesc(eq(owner.getId()), any());
+    private static BookingPeriod bookingPeriod(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return new BookingPeriod() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
     }
 
-    @Test
-    @DisplayName("Должен вызвать метод findByItemOwnerIdAndStatusOrderByStartDesc, когда state = REJECTED")
-    void getBookingsByOwnerIdWithFilter_shouldCallRelevantMethod_ifStateIsREJECTED() {
-
-        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
-        Item item1 = new Item(2L, owner, "Отвертка",
-                "Крестовая отвертка", true, null);
-        Item item2 = new Item(3L, owner, "Шуруповерт",
-                "Красный шупуповерт", true, null);
-        owner.getItems().add(item1);
-        owner.getItems().add(item2);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+    private static DecisionTarget decisionTarget(Long id, Long itemId, Long ownerId, Status status) {
+        return new DecisionTarget() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public Status getStatus() {
+                return status;
+            }
+        };
+    }
 
-        bookingService.getBookingsByOwnerIdWithFilter(owner.getId(), BookingState.REJECTED);
+    private static BookingRow bookingRow(Long id, LocalDateTime start, User booker) {
+        return new BookingRow(id, start, start.plusDays(1), Status.WAITING, 3L, "Отвертка", "Крестовая отвертка",
+                true, null, booker.getId(), booker.getName(), booker.getEmail());
+    }
 
-        verify(bookingRepository, times(1))
-                .findByItemOwnerIdAndStatusOrderByStartDesc(eq(owner.getId()), any());
+    private static BookingRow bookingRow(Booking booking, Status status) {
+        Item item = booking.getItem();
+        User booker = booking.getBooker();
+        return new BookingRow(booking.getId(), booking.getStart(), booking.getEnd(), status, item.getId(),
+                item.getName(), item.getDescription(), item.getAvailable(), item.getRequestId(),
+                booker.getId(), booker.getName(), booker.getEmail());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.server.booking;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.server.config.DatabaseProperties;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBookingSummaryServiceImplTest {
+
+    @Mock
+    private ItemBookingSummaryRepository summaryRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Spy
+    private DatabaseProperties databaseProperties = new DatabaseProperties();
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Spy
+    private BookingProperties bookingProperties = new BookingProperties();
+
+    @InjectMocks
+    private ItemBookingSummaryServiceImpl summaryService;
+
+    @Captor
+    private ArgumentCaptor<Iterable<ItemBookingSummary>> summariesCaptor;
+
+    @Test
+    @DisplayName("Должен пересчитывать вещи пачками заданного размера, пока пачка заполнена")
+    void refreshDue_shouldRefreshInBatchesOfConfiguredSize() {
+        bookingProperties.setSummaryRefreshBatchSize(2);
+        when(summaryRepository.findDueItemIds(any(), any()))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+
+        int refreshed = summaryService.refreshDue();
+
+        assertThat(refreshed, equalTo(3));
+        verify(summaryRepository, times(2)).findDueItemIds(any(), eq(Limit.of(2)));
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Должен сохранить последнее и следующее бронирования и время следующего пересчёта")
+    void refresh_shouldStoreLastAndNextBookings() {
+        LocalDateTime lastStart = LocalDateTime.now().minusDays(2);
+        LocalDateTime lastEnd = LocalDateTime.now().minusDays(1);
+        LocalDateTime nextStart = LocalDateTime.now().plusDays(1);
+        LocalDateTime nextEnd = LocalDateTime.now().plusDays(2);
+        when(summaryRepository.findAllByIdForUpdate(List.of(1L)))
+                .thenReturn(new ArrayList<>(List.of(new ItemBookingSummary(1L))));
+        when(bookingRepository.findNearestBookings(anyCollection(), any())).thenReturn(List.of(
+                nearest(1L, true, lastStart, lastEnd), nearest(1L, false, nextStart, nextEnd)));
+
+        summaryService.refresh(List.of(1L));
+
+        verify(summaryRepository).saveAll(summariesCaptor.capture());
+        ItemBookingSummary summary = summariesCaptor.getValue().iterator().next();
+        assertThat(summary.getLastStart(), equalTo(lastStart));
+        assertThat(summary.getLastEnd(), equalTo(lastEnd));
+        assertThat(summary.getNextStart(), equalTo(nextStart));
+        assertThat(summary.getNextEnd(), equalTo(nextEnd));
+        assertThat(summary.getRefreshAt(), equalTo(nextStart));
+    }
+
+    @Test
+    @DisplayName("Должен очистить бронирования, если у вещи больше нет активных бронирований")
+    void refresh_shouldClearSummary_ifNoBookingsLeft() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        ItemBookingSummary stored = new ItemBookingSummary(1L, null, null, start, start.plusDays(1), start);
+        when(summaryRepository.findAllByIdForUpdate(List.of(1L))).thenReturn(new ArrayList<>(List.of(stored)));
+        when(bookingRepository.findNearestBookings(anyCollection(), any())).thenReturn(List.of());
+
+        summaryService.refresh(List.of(1L));
+
+        verify(summaryRepository).saveAll(summariesCaptor.capture());
+        ItemBookingSummary summary = summariesCaptor.getValue().iterator().next();
+        assertThat(summary.getNextStart(), nullValue());
+        assertThat(summary.getNextEnd(), nullValue());
+        assertThat(summary.getRefreshAt(), nullValue());
+    }
+
+    @Test
+    @DisplayName("Не должен обращаться к базе для пустого списка вещей")
+    void refresh_shouldDoNothing_ifNoItemIds() {
+        summaryService.refresh(List.of());
+
+        verify(summaryRepository, never()).findAllByIdForUpdate(any());
+        verify(bookingRepository, never()).findNearestBookings(any(), any());
+    }
+
+    @Test
+    @DisplayName("Должен вернуть сводки, сгруппированные по id вещи")
+    void getByItemIds_shouldReturnSummariesById() {
+        ItemBookingSummary summary = new ItemBookingSummary(1L);
+        when(summaryRepository.findAllById(List.of(1L))).thenReturn(List.of(summary));
+
+        Map<Long, ItemBookingSummary> summaries = summaryService.getByItemIds(List.of(1L));
+
+        assertThat(summaries, equalTo(Map.of(1L, summary)));
+    }
+
+    private static NearestBooking nearest(Long itemId, boolean past, LocalDateTime start, LocalDateTime end) {
+        return new NearestBooking() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Boolean getPast() {
+                return past;
+            }
+
+            @Override
+            public LocalDateTime getStartDate() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEndDate() {
+                return end;
+            }
+        };
+    }
+}
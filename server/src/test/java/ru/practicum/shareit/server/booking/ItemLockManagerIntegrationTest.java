@@ -0,0 +1,98 @@
+package ru.practicum.shareit.server.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.server.config.DatabaseProperties;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(locations = "classpath:application-test.properties")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ItemLockManagerIntegrationTest {
+
+    private static final List<String> EVENTS = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private ItemLockManager itemLockManager;
+
+    @Autowired
+    private DatabaseProperties databaseProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        EVENTS.clear();
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS pg_advisory_xact_lock FOR '"
+                + AdvisoryLocks.class.getName() + ".lock'");
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseProperties.setPostgres(false);
+    }
+
+    @Test
+    @DisplayName("Должен зафиксировать транзакцию до освобождения страйпа и взять advisory-блокировки внутри нее")
+    void withItemLocks_shouldCommitBeforeReleasingStripe() throws Exception {
+        databaseProperties.setPostgres(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        itemLockManager.withItemLocks(List.of(19L, 7L), () -> {
+            EVENTS.add("action");
+            jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('Lock Check', 'lock-check@mail.ru')");
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    Integer visible = submitCount(executor);
+                    EVENTS.add("committed stripe=" + itemLockManager.stripeFor(7L).isHeldByCurrentThread()
+                            + " visible=" + visible);
+                }
+            });
+            return null;
+        });
+        executor.shutdown();
+
+        assertThat(EVENTS).containsExactly(
+                "advisory 7 tx=true",
+                "advisory 19 tx=true",
+                "action",
+                "committed stripe=true visible=1");
+        assertThat(itemLockManager.stripeFor(7L).isLocked()).isFalse();
+        assertThat(itemLockManager.stripeFor(19L).isLocked()).isFalse();
+    }
+
+    private Integer submitCount(ExecutorService executor) {
+        try {
+            return executor.submit(() -> jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM users WHERE email = 'lock-check@mail.ru'", Integer.class))
+                    .get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Подменяет pg_advisory_xact_lock в H2 и запоминает, взята ли блокировка внутри транзакции
+    public static class AdvisoryLocks {
+
+        public static int lock(Long itemId) {
+            EVENTS.add("advisory " + itemId + " tx=" + TransactionSynchronizationManager.isActualTransactionActive());
+            return 0;
+        }
+    }
+}
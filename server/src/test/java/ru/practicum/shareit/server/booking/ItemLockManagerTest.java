@@ -0,0 +1,140 @@
+package ru.practicum.shareit.server.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.server.config.DatabaseProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ItemLockManagerTest {
+
+    private static final int THREADS = 16;
+    private static final int ITEMS = 4;
+    private static final int INCREMENTS_PER_THREAD = 2000;
+
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final DatabaseProperties databaseProperties = new DatabaseProperties();
+    private ItemLockManager itemLockManager;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        itemLockManager = new ItemLockManager(new BookingProperties(), databaseProperties,
+                transactionTemplate, jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Не должен терять обновления при конкурентных операциях над одними и теми же вещами")
+    void withItemLock_shouldNotLoseUpdates_underContention() throws Exception {
+        long[] counters = new long[ITEMS];
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                    int item = (offset + i) % ITEMS;
+                    itemLockManager.withItemLock((long) item, () -> {
+                        long value = counters[item];
+                        Thread.yield();
+                        counters[item] = value + 1;
+                        return null;
+                    });
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        long expectedPerItem = (long) THREADS * INCREMENTS_PER_THREAD / ITEMS;
+        for (long counter : counters) {
+            assertThat(counter, equalTo(expectedPerItem));
+        }
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Должен брать advisory-блокировку по id вещи на Postgres")
+    void withItemLock_shouldTakeAdvisoryLock_onPostgres() {
+        databaseProperties.setPostgres(true);
+
+        itemLockManager.withItemLock(42L, () -> null);
+
+        verify(jdbcTemplate).queryForList("SELECT pg_advisory_xact_lock(?)", 42L);
+    }
+
+    @Test
+    @DisplayName("Должен брать advisory-блокировки нескольких вещей по возрастанию id в одной транзакции")
+    void withItemLocks_shouldTakeAdvisoryLocksInAscendingOrder_onPostgres() {
+        databaseProperties.setPostgres(true);
+
+        itemLockManager.withItemLocks(List.of(42L, 7L, 42L, 19L), () -> {
+            assertThat(itemLockManager.stripeFor(7L).isHeldByCurrentThread(), equalTo(true));
+            assertThat(itemLockManager.stripeFor(42L).isHeldByCurrentThread(), equalTo(true));
+            return null;
+        });
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).queryForList("SELECT pg_advisory_xact_lock(?)", 7L);
+        inOrder.verify(jdbcTemplate).queryForList("SELECT pg_advisory_xact_lock(?)", 19L);
+        inOrder.verify(jdbcTemplate).queryForList("SELECT pg_advisory_xact_lock(?)", 42L);
+        verify(transactionTemplate, times(1)).execute(any());
+        assertThat(itemLockManager.stripeFor(7L).isLocked(), equalTo(false));
+        assertThat(itemLockManager.stripeFor(42L).isLocked(), equalTo(false));
+    }
+
+    @Test
+    @DisplayName("Должен держать страйп владельца без транзакции и обращений к базе")
+    void withOwnerLock_shouldHoldOwnerStripeWithoutTransaction() {
+        databaseProperties.setPostgres(true);
+
+        itemLockManager.withOwnerLock(5L, () -> {
+            assertThat(itemLockManager.ownerStripeFor(5L).isHeldByCurrentThread(), equalTo(true));
+            assertThat(itemLockManager.stripeFor(5L).isLocked(), equalTo(false));
+            return null;
+        });
+
+        assertThat(itemLockManager.ownerStripeFor(5L).isLocked(), equalTo(false));
+        verify(transactionTemplate, never()).execute(any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Должен раскладывать соседние вещи по разным страйпам")
+    void stripeFor_shouldSpreadNeighbourItems() {
+        assertThat(itemLockManager.stripeFor(1L), not(sameInstance(itemLockManager.stripeFor(2L))));
+        assertThat(itemLockManager.stripeFor(1L), sameInstance(itemLockManager.stripeFor(1L)));
+    }
+}
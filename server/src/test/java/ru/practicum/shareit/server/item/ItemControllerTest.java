@@ -10,6 +10,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.server.item.dto.CommentDto;
 import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.dto.ItemSearchPageDto;
 import ru.practicum.shareit.server.item.dto.ItemUpdateDto;
 import ru.practicum.shareit.server.item.dto.ItemWithBookingsDto;
 
@@ -20,6 +21,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemController.class)
@@ -172,11 +174,13 @@ class ItemControllerTest {
                 2L,
                 null));
 
-        when(itemService.getAllItemsByText("Laptop")).thenReturn(items);
+        when(itemService.getAllItemsByText("Laptop", 1, null, false, null, null)).thenReturn(new ItemSearchPageDto(items, "next"));
 
         String result = mockMvc.perform(get("/items/search")
-                        .param("text", "Laptop"))
+                        .param("text", "Laptop")
+                        .param("limit", "1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(ItemController.NEXT_CURSOR_HEADER, "next"))
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
@@ -184,6 +188,22 @@ class ItemControllerTest {
         assertEquals(objectMapper.writeValueAsString(items), result);
     }
 
+    @SneakyThrows
+    @Test
+    void suggestNames_shouldReturnNamesAndReturn200() {
+        List<String> names = List.of("Laptop", "Laser level");
+        when(itemService.suggestNames("La", null)).thenReturn(names);
+
+        String result = mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "La"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(names), result);
+    }
+
     @SneakyThrows
     @Test
     void createComment_shouldCreateCommentAndReturn200() {
@@ -11,6 +11,7 @@ import ru.practicum.shareit.server.booking.dto.BookingDto;
 import ru.practicum.shareit.server.booking.dto.BookingShortDto;
 import ru.practicum.shareit.server.item.dto.CommentDto;
 import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.dto.ItemUpdateDto;
 import ru.practicum.shareit.server.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.server.user.dto.UserDto;
 
@@ -187,6 +188,168 @@ class ItemIntegrationTest {
 
     }
 
+    @Test
+    void getItemById_shouldKeepRejectedBookingAsNextBooking() {
+        UserDto ownerDto = new UserDto(null, "Denis Orlov", "denis31@gmail.com");
+        ResponseEntity<UserDto> responseOwner = testRestTemplate.postForEntity("/users", ownerDto, UserDto.class);
+        assertNotNull(responseOwner.getBody());
+        Long ownerId = responseOwner.getBody().getId();
+
+        UserDto bookerDto = new UserDto(null, "Nina Orlova", "nina31@gmail.com");
+        ResponseEntity<UserDto> responseBooker = testRestTemplate.postForEntity("/users", bookerDto, UserDto.class);
+        assertNotNull(responseBooker.getBody());
+        Long bookerId = responseBooker.getBody().getId();
+
+        Long itemId = createItem(ownerId, new ItemDto(null, "Tent", "Two person tent", true, null, null)).getId();
+        Booking booking = createBooking(bookerId, itemId,
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+
+        // Отклоненное бронирование, как и раньше, остается ближайшим следующим
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(ownerId));
+        ResponseEntity<BookingDto> rejected = testRestTemplate.exchange(
+                "/bookings/" + booking.getId() + "?approved=false", HttpMethod.PATCH,
+                new HttpEntity<>(headers), BookingDto.class);
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<ItemWithBookingsDto> response = testRestTemplate.exchange(
+                "/items/" + itemId, HttpMethod.GET, new HttpEntity<>(headers), ItemWithBookingsDto.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertNotNull(response.getBody());
+        assertThat(response.getBody().getLastBooking()).isNull();
+        assertNotNull(response.getBody().getNextBooking());
+        assertThat(response.getBody().getNextBooking().getStart()).isEqualToIgnoringNanos(booking.getStart());
+    }
+
+    @Test
+    void getAllItemsByText_shouldFindItemsBySubstringAndFollowUpdates() {
+        UserDto ownerDto = new UserDto(null, "Oleg Sidorov", "oleg21@gmail.com");
+        ResponseEntity<UserDto> responseOwner = testRestTemplate.postForEntity("/users", ownerDto, UserDto.class);
+        assertNotNull(responseOwner.getBody());
+        Long ownerId = responseOwner.getBody().getId();
+
+        ItemDto saw = createItem(ownerId, new ItemDto(null, "Лобзик", "Пилит ровно, с лазером", true, null, null));
+        createItem(ownerId, new ItemDto(null, "Стремянка", "Алюминиевая", true, null, null));
+
+        assertThat(searchItems(ownerId, "ЛОБЗ")).extracting(ItemDto::getId).containsExactly(saw.getId());
+        assertThat(searchItems(ownerId, "лазер")).extracting(ItemDto::getId).containsExactly(saw.getId());
+
+        updateItem(ownerId, saw.getId(), new ItemUpdateDto("Циркулярка", null, null));
+        assertThat(searchItems(ownerId, "циркуляр")).extracting(ItemDto::getId).containsExactly(saw.getId());
+        assertThat(searchItems(ownerId, "лобзик")).isEmpty();
+
+        updateItem(ownerId, saw.getId(), new ItemUpdateDto(null, null, false));
+        assertThat(searchItems(ownerId, "циркуляр")).isEmpty();
+    }
+
+    @Test
+    void getAllItemsByText_shouldTolerateTyposInFuzzyMode() {
+        UserDto ownerDto = new UserDto(null, "Pavel Orlov", "pavel17@gmail.com");
+        ResponseEntity<UserDto> responseOwner = testRestTemplate.postForEntity("/users", ownerDto, UserDto.class);
+        assertNotNull(responseOwner.getBody());
+        Long ownerId = responseOwner.getBody().getId();
+
+        ItemDto mixer = createItem(ownerId, new ItemDto(null, "Бетономешалка", "Гравитационная", true, null, null));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(ownerId));
+        ResponseEntity<ItemDto[]> response = testRestTemplate.exchange("/items/search?text={text}&fuzzy=true",
+                HttpMethod.GET, new HttpEntity<>(headers), ItemDto[].class, "бетономешлка гравитацонная");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(ItemDto::getId).containsExactly(mixer.getId());
+        assertThat(searchItems(ownerId, "бетономешлка")).isEmpty();
+
+        updateItem(ownerId, mixer.getId(), new ItemUpdateDto(null, null, false));
+        response = testRestTemplate.exchange("/items/search?text={text}&fuzzy=true",
+                HttpMethod.GET, new HttpEntity<>(headers), ItemDto[].class, "бетономешлка");
+        assertThat(response.getBody()).isEmpty();
+    }
+
+    @Test
+    void getAllItemsByText_shouldReturnOnlyItemsFreeInRequestedWindow() {
+        UserDto ownerDto = new UserDto(null, "Igor Belov", "igor33@gmail.com");
+        ResponseEntity<UserDto> responseOwner = testRestTemplate.postForEntity("/users", ownerDto, UserDto.class);
+        assertNotNull(responseOwner.getBody());
+        Long ownerId = responseOwner.getBody().getId();
+        UserDto bookerDto = new UserDto(null, "Olga Belova", "olga33@gmail.com");
+        ResponseEntity<UserDto> responseBooker = testRestTemplate.postForEntity("/users", bookerDto, UserDto.class);
+        assertNotNull(responseBooker.getBody());
+        Long bookerId = responseBooker.getBody().getId();
+
+        ItemDto busyTent = createItem(ownerId, new ItemDto(null, "Палатка трехместная", "Каркасная", true, null, null));
+        ItemDto freeTent = createItem(ownerId, new ItemDto(null, "Палатка двухместная", "Каркасная", true, null, null));
+        Booking booking = createBooking(bookerId, busyTent.getId(),
+                LocalDateTime.of(2099, 6, 1, 10, 0), LocalDateTime.of(2099, 6, 10, 10, 0));
+
+        assertThat(searchFreeItems(ownerId, "палатка", "2099-06-05T00:00:00", "2099-06-07T00:00:00"))
+                .extracting(ItemDto::getId).containsExactly(freeTent.getId());
+        assertThat(searchFreeItems(ownerId, "палатка", "2099-06-10T10:00:00", "2099-06-12T00:00:00"))
+                .extracting(ItemDto::getId).containsExactlyInAnyOrder(busyTent.getId(), freeTent.getId());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(ownerId));
+        testRestTemplate.exchange("/bookings/" + booking.getId() + "?approved=false", HttpMethod.PATCH,
+                new HttpEntity<>(headers), BookingDto.class);
+        assertThat(searchFreeItems(ownerId, "палатка", "2099-06-05T00:00:00", "2099-06-07T00:00:00"))
+                .extracting(ItemDto::getId).containsExactlyInAnyOrder(busyTent.getId(), freeTent.getId());
+    }
+
+    @Test
+    void suggestNames_shouldReturnNamesOfAvailableItemsByPrefix() {
+        UserDto ownerDto = new UserDto(null, "Anna Smirnova", "anna42@gmail.com");
+        ResponseEntity<UserDto> responseOwner = testRestTemplate.postForEntity("/users", ownerDto, UserDto.class);
+        assertNotNull(responseOwner.getBody());
+        Long ownerId = responseOwner.getBody().getId();
+
+        createItem(ownerId, new ItemDto(null, "Кувалда", "Тяжелая", true, null, null));
+        createItem(ownerId, new ItemDto(null, "Кувалда", "Легкая", true, null, null));
+        ItemDto kettle = createItem(ownerId, new ItemDto(null, "Кувшин", "Глиняный", true, null, null));
+        createItem(ownerId, new ItemDto(null, "Кувшинка", "Искусственная", false, null, null));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(ownerId));
+        ResponseEntity<String[]> response = testRestTemplate.exchange(
+                "/items/suggest?prefix={prefix}", HttpMethod.GET, new HttpEntity<>(headers), String[].class, "кув");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly("Кувалда", "Кувшин");
+
+        updateItem(ownerId, kettle.getId(), new ItemUpdateDto(null, null, false));
+        response = testRestTemplate.exchange(
+                "/items/suggest?prefix={prefix}", HttpMethod.GET, new HttpEntity<>(headers), String[].class, "кув");
+        assertThat(response.getBody()).containsExactly("Кувалда");
+    }
+
+    private ItemDto[] searchItems(Long userId, String text) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        ResponseEntity<ItemDto[]> response = testRestTemplate.exchange(
+                "/items/search?text={text}", HttpMethod.GET, new HttpEntity<>(headers), ItemDto[].class, text);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertNotNull(response.getBody());
+        return response.getBody();
+    }
+
+    private ItemDto[] searchFreeItems(Long userId, String text, String start, String end) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        ResponseEntity<ItemDto[]> response = testRestTemplate.exchange(
+                "/items/search?text={text}&start={start}&end={end}", HttpMethod.GET, new HttpEntity<>(headers),
+                ItemDto[].class, text, start, end);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertNotNull(response.getBody());
+        return response.getBody();
+    }
+
+    private void updateItem(Long ownerId, Long itemId, ItemUpdateDto updates) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(ownerId));
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<ItemDto> response = testRestTemplate.exchange(
+                "/items/" + itemId, HttpMethod.PATCH, new HttpEntity<>(updates, headers), ItemDto.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
     private ItemDto createItem(Long ownerId, ItemDto itemDto) {
         HttpHeaders headers = new HttpHeaders();
         headers.set("X-Sharer-User-Id", String.valueOf(ownerId));
@@ -7,26 +7,42 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.server.booking.Booking;
 import ru.practicum.shareit.server.booking.BookingRepository;
+import ru.practicum.shareit.server.booking.ItemBookingSummary;
+import ru.practicum.shareit.server.booking.ItemBookingSummaryService;
 import ru.practicum.shareit.server.booking.dto.BookingShortDto;
 import ru.practicum.shareit.server.booking.enums.Status;
+import ru.practicum.shareit.server.config.DatabaseProperties;
 import ru.practicum.shareit.server.exception.ForbiddenExcepton;
 import ru.practicum.shareit.server.exception.NotFoundException;
 import ru.practicum.shareit.server.exception.ValidationException;
 import ru.practicum.shareit.server.item.dto.CommentDto;
 import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.dto.ItemSearchPageDto;
 import ru.practicum.shareit.server.item.dto.ItemUpdateDto;
 import ru.practicum.shareit.server.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.server.item.enums.SearchMode;
+import ru.practicum.shareit.server.item.search.CachedSearch;
+import ru.practicum.shareit.server.item.search.FuzzyMatch;
+import ru.practicum.shareit.server.item.search.ItemSearchCache;
+import ru.practicum.shareit.server.item.search.ItemSearchIndex;
+import ru.practicum.shareit.server.item.search.ItemSearchProperties;
+import ru.practicum.shareit.server.item.search.ItemText;
+import ru.practicum.shareit.server.item.search.ScoredItem;
+import ru.practicum.shareit.server.item.search.SearchCacheKey;
 import ru.practicum.shareit.server.request.ItemRequestRepository;
 import ru.practicum.shareit.server.user.User;
 import ru.practicum.shareit.server.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -34,6 +50,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -50,6 +67,16 @@ class ItemServiceImplTest {
     private CommentRepository commentRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Spy
+    private ItemSearchProperties searchProperties = new ItemSearchProperties();
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemSearchCache itemSearchCache;
+    @Spy
+    private DatabaseProperties databaseProperties = new DatabaseProperties();
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
 
     @InjectMocks
     private ItemServiceImpl itemService;
@@ -132,6 +159,7 @@ class ItemServiceImplTest {
         assertThat(itemExpected.getDescription(), equalTo(itemActual.getDescription()));
         assertThat(itemExpected.getAvailable(), equalTo(itemActual.getAvailable()));
         assertThat(itemExpected.getRequestId(), equalTo(itemActual.getRequestId()));
+        verify(itemSearchIndex, times(1)).onItemSaved(itemActual, null);
 
     }
 
@@ -260,6 +288,9 @@ class ItemServiceImplTest {
         assertThat(itemExpected.getDescription(), equalTo(itemActual.getDescription()));
         assertThat(itemExpected.getAvailable(), equalTo(itemActual.getAvailable()));
         assertThat(itemExpected.getRequestId(), equalTo(itemActual.getRequestId()));
+
+        verify(itemSearchIndex, times(1)).onItemSaved(itemActual,
+                new ItemText(1L, "Отвертка", "Крестовая отвертка"));
     }
 
     @Test
@@ -360,31 +391,23 @@ class ItemServiceImplTest {
                 comment2.getAuthor().getId(), comment2.getAuthor().getName(), comment2.getCreated());
         List<CommentDto> commentsDtoExpected = List.of(commentDto1, commentDto2);
 
-        Booking booking1 = new Booking(1L,
-                LocalDateTime.of(2024, 8, 1, 10, 20, 0, 0),
-                LocalDateTime.of(2024, 8, 10, 10, 20, 0, 0),
-                item, commentAuthor1, Status.APPROVED);
         Booking booking2 = new Booking(2L,
                 LocalDateTime.of(2024, 9, 1, 10, 20, 0, 0),
                 LocalDateTime.of(2024, 9, 10, 10, 20, 0, 0),
                 item, commentAuthor2, Status.APPROVED);
         Booking booking3 = new Booking(3L,
-                LocalDateTime.of(2025, 5, 1, 10, 20, 0, 0),
-                LocalDateTime.of(2025, 5, 10, 10, 20, 0, 0),
+                LocalDateTime.of(2099, 5, 1, 10, 20, 0, 0),
+                LocalDateTime.of(2099, 5, 10, 10, 20, 0, 0),
                 item, booker3, Status.APPROVED);
-        Booking booking4 = new Booking(4L,
-                LocalDateTime.of(2025, 6, 1, 10, 20, 0, 0),
-                LocalDateTime.of(2025, 6, 10, 10, 20, 0, 0),
-                item, booker4, Status.APPROVED);
-        List<Booking> itemBookings = List.of(booking1, booking2, booking3, booking4);
 
         BookingShortDto lastBookingExpected = new BookingShortDto(booking2.getStart(), booking2.getEnd());
         BookingShortDto nextBookingExpected = new BookingShortDto(booking3.getStart(), booking3.getEnd());
 
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(requestor));
-        when(commentRepository.findByItemId(anyLong())).thenReturn(comments);
-        when(bookingRepository.findByItemId(anyLong())).thenReturn(itemBookings);
+        when(commentRepository.findByItemIdIn(List.of(1L))).thenReturn(comments);
+        when(itemBookingSummaryService.getByItemIds(List.of(1L)))
+                .thenReturn(Map.of(1L, summary(booking2, booking3)));
 
 
         ItemWithBookingsDto itemWithBookingsDtoExpected = new ItemWithBookingsDto(
@@ -476,42 +499,24 @@ class ItemServiceImplTest {
                 comment4.getAuthor().getId(), comment4.getAuthor().getName(), comment4.getCreated());
         List<CommentDto> commentsDtoExpected2 = List.of(commentDto3, commentDto4);
 
-        Booking booking1 = new Booking(1L,
-                LocalDateTime.of(2024, 8, 1, 10, 20, 0, 0),
-                LocalDateTime.of(2024, 8, 10, 10, 20, 0, 0),
-                item1, commentAuthor1, Status.APPROVED);
         Booking booking2 = new Booking(2L,
                 LocalDateTime.of(2024, 9, 1, 10, 20, 0, 0),
                 LocalDateTime.of(2024, 9, 10, 10, 20, 0, 0),
                 item1, commentAuthor2, Status.APPROVED);
         Booking booking3 = new Booking(3L,
-                LocalDateTime.of(2025, 5, 1, 10, 20, 0, 0),
-                LocalDateTime.of(2025, 5, 10, 10, 20, 0, 0),
+                LocalDateTime.of(2099, 5, 1, 10, 20, 0, 0),
+                LocalDateTime.of(2099, 5, 10, 10, 20, 0, 0),
                 item1, booker3, Status.APPROVED);
-        Booking booking4 = new Booking(4L,
-                LocalDateTime.of(2025, 6, 1, 10, 20, 0, 0),
-                LocalDateTime.of(2025, 6, 10, 10, 20, 0, 0),
-                item1, booker4, Status.APPROVED);
-
-        Booking booking5 = new Booking(5L,
-                LocalDateTime.of(2024, 7, 1, 10, 20, 0, 0),
-                LocalDateTime.of(2024, 7, 10, 10, 20, 0, 0),
-                item2, commentAuthor1, Status.APPROVED);
+
         Booking booking6 = new Booking(6L,
                 LocalDateTime.of(2024, 8, 1, 10, 20, 0, 0),
                 LocalDateTime.of(2024, 8, 10, 10, 20, 0, 0),
                 item2, commentAuthor2, Status.APPROVED);
         Booking booking7 = new Booking(7L,
-                LocalDateTime.of(2025, 6, 1, 10, 20, 0, 0),
-                LocalDateTime.of(2025, 6, 10, 10, 20, 0, 0),
+                LocalDateTime.of(2099, 6, 1, 10, 20, 0, 0),
+                LocalDateTime.of(2099, 6, 10, 10, 20, 0, 0),
                 item2, booker3, Status.APPROVED);
-        Booking booking8 = new Booking(8L,
-                LocalDateTime.of(2025, 7, 1, 10, 20, 0, 0),
-                LocalDateTime.of(2025, 7, 10, 10, 20, 0, 0),
-                item2, booker4, Status.APPROVED);
 
-        List<Booking> itemsBookings = List.of(booking1, booking2, booking3, booking4,
-                booking5, booking6, booking7, booking8);
 
         BookingShortDto lastBookingExpected1 = new BookingShortDto(booking2.getStart(), booking2.getEnd());
         BookingShortDto nextBookingExpected1 = new BookingShortDto(booking3.getStart(), booking3.getEnd());
@@ -533,9 +538,11 @@ class ItemServiceImplTest {
 
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
         when(itemRepository.findByOwnerId(anyLong())).thenReturn(itemList);
-        when(bookingRepository.findByItemIdIn(anyList())).thenReturn(itemsBookings);
-        when(commentRepository.findByItemId(1L)).thenReturn(commentList1);
-        when(commentRepository.findByItemId(2L)).thenReturn(commentList2);
+        when(itemBookingSummaryService.getByItemIds(List.of(1L, 2L))).thenReturn(Map.of(
+                1L, summary(booking2, booking3), 2L, summary(booking6, booking7)));
+        List<Comment> comments = new ArrayList<>(commentList1);
+        comments.addAll(commentList2);
+        when(commentRepository.findByItemIdIn(List.of(1L, 2L))).thenReturn(comments);
 
         //when
         List<ItemWithBookingsDto> itemWithBookingsDtoListActual = itemService.getAllItemsByOwnerWithBookings(owner.getId());
@@ -570,24 +577,247 @@ class ItemServiceImplTest {
     @Test
     @DisplayName("Должен вернуть пустой лист, если строка null")
     void getAllItemsByText_shouldReturnEmptyList_ifTextIsNull() {
-        List<ItemDto> itemDtoList = itemService.getAllItemsByText(null);
+        List<ItemDto> itemDtoList = itemService.getAllItemsByText(null, null, null, false, null, null).getItems();
         assertTrue(itemDtoList.isEmpty());
     }
 
     @Test
     @DisplayName("Должен вернуть пустой лист, если строка пустая")
     void getAllItemsByText_shouldReturnEmptyList_ifTextIsEmpty() {
-        List<ItemDto> itemDtoList = itemService.getAllItemsByText("");
+        List<ItemDto> itemDtoList = itemService.getAllItemsByText("", null, null, false, null, null).getItems();
         assertTrue(itemDtoList.isEmpty());
     }
 
     @Test
     @DisplayName("Должен вернуть пустой лист, если строка состоит из пробелов")
     void getAllItemsByText_shouldReturnEmptyList_ifTextConsistsOfSpaces() {
-        List<ItemDto> itemDtoList = itemService.getAllItemsByText("  ");
+        List<ItemDto> itemDtoList = itemService.getAllItemsByText("  ", null, null, false, null, null).getItems();
         assertTrue(itemDtoList.isEmpty());
     }
 
+    @Test
+    @DisplayName("Должен искать через LIKE-запрос в режиме LIKE")
+    void getAllItemsByText_shouldUseLikeQuery_ifModeIsLike() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
+        Item item = new Item(1L, owner, "Дрель", "Дрель ударная", true, null);
+        when(itemRepository.searchByText("дрель")).thenReturn(List.of(item));
+        when(commentRepository.findByItemIdIn(List.of(1L))).thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.getAllItemsByText("дрель", null, null, false, null, null).getItems();
+
+        assertThat(itemDtoList.size(), equalTo(1));
+        assertThat(itemDtoList.get(0).getId(), equalTo(1L));
+        verify(itemRepository, never()).searchByFullText(any());
+    }
+
+    @Test
+    @DisplayName("Должен отдавать страницу из кэша поиска без повторного поиска, перечитывая вещи и отзывы")
+    void getAllItemsByText_shouldServePageFromCache() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
+        Item drill = new Item(1L, owner, "Дрель", "Дрель ударная", true, null);
+        SearchCacheKey key = new SearchCacheKey(false, "дрель");
+        CachedSearch cached = new CachedSearch(List.of(new ScoredItem(drill, 2.0)), Long.MAX_VALUE);
+        when(itemSearchCache.keyOf("дрель", false)).thenReturn(Optional.of(key));
+        when(itemSearchCache.get(key)).thenReturn(Optional.of(cached));
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(drill));
+        when(commentRepository.findByItemIdIn(List.of(1L))).thenReturn(Collections.emptyList());
+
+        itemService.getAllItemsByText("дрель", null, null, false, null, null);
+        List<ItemDto> itemDtoList = itemService.getAllItemsByText("дрель", null, null, false, null, null).getItems();
+
+        assertThat(itemDtoList.stream().map(ItemDto::getId).toList(), equalTo(List.of(1L)));
+        verify(itemRepository, times(2)).findAllById(any());
+        verify(commentRepository, times(2)).findByItemIdIn(any());
+        verify(itemRepository, never()).searchByText(any());
+    }
+
+    @Test
+    @DisplayName("Должен сбрасывать кэш поиска при изменении вещи")
+    void update_shouldInvalidateSearchCache() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
+        Item item = new Item(1L, owner, "Дрель", "Дрель ударная", true, null);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(itemRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        itemService.update(1L, new ItemUpdateDto(null, null, false), 1L);
+
+        verify(itemSearchCache).onItemSaved(item);
+    }
+
+    @Test
+    @DisplayName("Должен оставлять только вещи, свободные в запрошенный период")
+    void getAllItemsByText_shouldKeepOnlyItemsFreeInWindow() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
+        Item busy = new Item(1L, owner, "Палатка", "Большая", true, null);
+        Item free = new Item(2L, owner, "Палатка", "Малая", true, null);
+        LocalDateTime start = LocalDateTime.of(2099, 6, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2099, 6, 5, 0, 0);
+        when(itemRepository.searchByText("палатка")).thenReturn(List.of(busy, free));
+        when(itemRepository.findFreeItemIds(List.of(1L, 2L), List.of(Status.APPROVED, Status.WAITING), start, end))
+                .thenReturn(List.of(2L));
+        when(commentRepository.findByItemIdIn(List.of(2L))).thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.getAllItemsByText("палатка", null, null, false, start, end)
+                .getItems();
+
+        assertThat(itemDtoList.stream().map(ItemDto::getId).toList(), equalTo(List.of(2L)));
+        verify(itemRepository, never()).findFreeItemIdsByRange(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Должен проверять свободные вещи через диапазоны Postgres, если они доступны")
+    void getAllItemsByText_shouldUseRangeQuery_ifPostgres() {
+        databaseProperties.setPostgres(true);
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
+        Item item = new Item(1L, owner, "Палатка", "Большая", true, null);
+        LocalDateTime start = LocalDateTime.of(2099, 6, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2099, 6, 5, 0, 0);
+        when(itemRepository.searchByText("палатка")).thenReturn(List.of(item));
+        when(itemRepository.findFreeItemIdsByRange(List.of(1L), start, end)).thenReturn(List.of());
+
+        List<ItemDto> itemDtoList = itemService.getAllItemsByText("палатка", null, null, false, start, end)
+                .getItems();
+
+        assertTrue(itemDtoList.isEmpty());
+        verify(itemRepository, never()).findFreeItemIds(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Должен выкинуть исключение при некорректном периоде")
+    void getAllItemsByText_shouldThrowException_ifWindowIsInvalid() {
+        LocalDateTime start = LocalDateTime.of(2099, 6, 1, 0, 0);
+        assertThrows(ValidationException.class,
+                () -> itemService.getAllItemsByText("палатка", null, null, false, start, null));
+        assertThrows(ValidationException.class,
+                () -> itemService.getAllItemsByText("палатка", null, null, false, start, start));
+    }
+
+    @Test
+    @DisplayName("Должен искать с опечатками через нечеткий индекс и ранжировать по найденным термам")
+    void getAllItemsByText_shouldUseFuzzyIndex_ifFuzzyRequested() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
+        Item drill = new Item(1L, owner, "Дрель", "Дрель ударная", true, null);
+        Item saw = new Item(2L, owner, "Пила", "Дрель не нужна", true, null);
+        when(itemSearchIndex.fuzzySearch("дрэль"))
+                .thenReturn(Optional.of(new FuzzyMatch(List.of(saw, drill), List.of("дрель"))));
+        when(commentRepository.findByItemIdIn(List.of(1L, 2L))).thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.getAllItemsByText("дрэль", null, null, true, null, null).getItems();
+
+        assertThat(itemDtoList.stream().map(ItemDto::getId).toList(), equalTo(List.of(1L, 2L)));
+        verify(itemRepository, never()).searchByText(any());
+    }
+
+    @Test
+    @DisplayName("Должен искать обычным способом, если нечеткий индекс недоступен")
+    void getAllItemsByText_shouldFallBackToExactSearch_ifFuzzyIndexUnavailable() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
+        Item item = new Item(1L, owner, "Дрель", "Дрель ударная", true, null);
+        when(itemSearchIndex.fuzzySearch("дрель")).thenReturn(Optional.empty());
+        when(itemRepository.searchByText("дрель")).thenReturn(List.of(item));
+        when(commentRepository.findByItemIdIn(List.of(1L))).thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.getAllItemsByText("дрель", null, null, true, null, null).getItems();
+
+        assertThat(itemDtoList.size(), equalTo(1));
+    }
+
+    @Test
+    @DisplayName("Должен искать через полнотекстовый индекс в режиме FULL_TEXT")
+    void getAllItemsByText_shouldUseFullTextQuery_ifModeIsFullText() {
+        searchProperties.setMode(SearchMode.FULL_TEXT);
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
+        Item item = new Item(1L, owner, "Дрель", "Дрель ударная", true, null);
+        when(itemRepository.searchByFullText("дрели")).thenReturn(List.of(item));
+        when(commentRepository.findByItemIdIn(List.of(1L))).thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.getAllItemsByText("дрели", null, null, false, null, null).getItems();
+
+        assertThat(itemDtoList.size(), equalTo(1));
+        assertThat(itemDtoList.get(0).getName(), equalTo("Дрель"));
+        verify(itemRepository, never()).searchByText(any());
+    }
+
+    @Test
+    @DisplayName("Должен вернуть только лучшие результаты и загрузить отзывы только для них")
+    void getAllItemsByText_shouldReturnTopRankedItemsAndFetchCommentsOnlyForThem() {
+        searchProperties.setMaxResults(2);
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
+        Item descriptionMatch = new Item(1L, owner, "Набор", "Дрель и биты", true, null);
+        Item nameMatch = new Item(2L, owner, "Дрель", "Ударная", true, null);
+        Item longDescriptionMatch = new Item(3L, owner, "Ящик",
+                "Ящик с инструментами: молоток, отвертки, дрель, уровень", true, null);
+        when(itemRepository.searchByText("дрель"))
+                .thenReturn(List.of(descriptionMatch, nameMatch, longDescriptionMatch));
+        when(commentRepository.findByItemIdIn(List.of(2L, 1L))).thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.getAllItemsByText("дрель", null, null, false, null, null).getItems();
+
+        assertThat(itemDtoList.size(), equalTo(2));
+        assertThat(itemDtoList.get(0).getId(), equalTo(2L));
+        assertThat(itemDtoList.get(1).getId(), equalTo(1L));
+        verify(commentRepository, times(1)).findByItemIdIn(List.of(2L, 1L));
+    }
+
+    @Test
+    @DisplayName("Должен отдавать результаты постранично по курсору без повторов")
+    void getAllItemsByText_shouldPageThroughResultsWithCursor() {
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
+        List<Item> items = List.of(
+                new Item(1L, owner, "Пила", "Ручная", true, null),
+                new Item(2L, owner, "Пила", "Ручная", true, null),
+                new Item(3L, owner, "Набор", "Пила и топор", true, null));
+        when(itemRepository.searchByText("пила")).thenReturn(items);
+        when(commentRepository.findByItemIdIn(anyList())).thenReturn(Collections.emptyList());
+
+        ItemSearchPageDto firstPage = itemService.getAllItemsByText("пила", 2, null, false, null, null);
+        ItemSearchPageDto secondPage = itemService.getAllItemsByText("пила", 2, firstPage.getNextCursor(), false, null, null);
+
+        assertThat(firstPage.getItems().stream().map(ItemDto::getId).toList(), equalTo(List.of(1L, 2L)));
+        assertThat(firstPage.getNextCursor(), notNullValue());
+        assertThat(secondPage.getItems().stream().map(ItemDto::getId).toList(), equalTo(List.of(3L)));
+        assertThat(secondPage.getNextCursor(), equalTo(null));
+        verify(commentRepository, times(1)).findByItemIdIn(List.of(3L));
+    }
+
+    @Test
+    @DisplayName("Должен выкинуть исключение, если курсор или размер страницы некорректны")
+    void getAllItemsByText_shouldThrowException_ifCursorOrLimitIsInvalid() {
+        assertThrows(ValidationException.class, () -> itemService.getAllItemsByText("пила", 10, "not a cursor", false, null, null));
+        assertThrows(ValidationException.class, () -> itemService.getAllItemsByText("пила", 0, null, false, null, null));
+        verify(itemRepository, never()).searchByText(any());
+    }
+
+    @Test
+    @DisplayName("Должен вернуть подсказки из индекса с ограничением количества")
+    void suggestNames_shouldReturnSuggestionsFromIndexWithCappedLimit() {
+        searchProperties.setSuggestLimit(5);
+        when(itemSearchIndex.suggest("дре", 5)).thenReturn(List.of("Дрель", "Дрезина"));
+
+        List<String> suggestions = itemService.suggestNames("дре", 50);
+
+        assertThat(suggestions, equalTo(List.of("Дрель", "Дрезина")));
+        assertTrue(itemService.suggestNames(" ", null).isEmpty());
+        assertThrows(ValidationException.class, () -> itemService.suggestNames("дре", -1));
+    }
+
+    @Test
+    @DisplayName("Должен искать через триграммный индекс в режиме TRIGRAM")
+    void getAllItemsByText_shouldUseTrigramIndex_ifModeIsTrigram() {
+        searchProperties.setMode(SearchMode.TRIGRAM);
+        User owner = new User(1L, "Ivan Ivanov", "ivan@gmail.com", new HashSet<>());
+        Item item = new Item(1L, owner, "Дрель", "Дрель ударная", true, null);
+        when(itemSearchIndex.search("рел")).thenReturn(List.of(item));
+        when(commentRepository.findByItemIdIn(List.of(1L))).thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.getAllItemsByText("рел", null, null, false, null, null).getItems();
+
+        assertThat(itemDtoList.size(), equalTo(1));
+        verify(itemRepository, never()).searchByText(any());
+        verify(itemRepository, never()).searchByFullText(any());
+    }
+
 
     @Test
     @DisplayName("Должен выкинуть исключение, если не нашлось букинга этой вещи этим юзером")
@@ -720,4 +950,9 @@ class ItemServiceImplTest {
         assertThat(commentDtoExpected.getAuthorName(), equalTo(commentDtoActual.getAuthorName()));
         assertThat(commentDtoExpected.getCreated(), equalTo(commentDtoActual.getCreated()));
     }
-}
\ No newline at end of file
+
+    private static ItemBookingSummary summary(Booking last, Booking next) {
+        return new ItemBookingSummary(last.getItem().getId(), last.getStart(), last.getEnd(),
+                next.getStart(), next.getEnd(), next.getStart());
+    }
+}
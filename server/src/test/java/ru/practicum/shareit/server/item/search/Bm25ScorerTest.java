@@ -0,0 +1,52 @@
+package ru.practicum.shareit.server.item.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.server.item.Item;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Bm25ScorerTest {
+
+    private final Item inName = new Item(1L, null, "Дрель", "Ударная, для бетона", true, null);
+    private final Item inDescription = new Item(2L, null, "Набор", "Дрель и биты", true, null);
+    private final Item inLongDescription = new Item(3L, null, "Ящик",
+            "Большой ящик с инструментами: молоток, отвертки, дрель, уровень, рулетка", true, null);
+    private final Item twiceInName = new Item(4L, null, "Дрель-дрель", "Две дрели", true, null);
+
+    @Test
+    @DisplayName("Должен ранжировать совпадение в названии выше совпадения в описании")
+    void score_shouldBoostNameMatches() {
+        List<Item> matches = List.of(inName, inDescription, inLongDescription);
+        Bm25Scorer scorer = Bm25Scorer.of("дрель", matches, null, 2.0);
+
+        assertThat(scorer.score(inName)).isGreaterThan(scorer.score(inDescription));
+        assertThat(scorer.score(inDescription)).isGreaterThan(scorer.score(inLongDescription));
+    }
+
+    @Test
+    @DisplayName("Должен выбирать лучшие K результатов по убыванию релевантности")
+    void select_shouldReturnBestKInScoreOrder() {
+        List<Item> matches = List.of(inLongDescription, inDescription, twiceInName, inName);
+        Bm25Scorer scorer = Bm25Scorer.of("дрель", matches, new CorpusStats(1000, 1.5, 8), 2.0);
+
+        List<ScoredItem> top = TopK.select(matches, scorer, 2);
+
+        assertThat(top).extracting(scored -> scored.item().getId()).containsExactly(4L, 1L);
+        assertThat(top.get(0).score()).isGreaterThan(top.get(1).score());
+    }
+
+    @Test
+    @DisplayName("Должен упорядочивать равные по релевантности результаты по id")
+    void select_shouldBreakTiesById() {
+        Item first = new Item(7L, null, "Пила", "Пила", true, null);
+        Item second = new Item(5L, null, "Пила", "Пила", true, null);
+        Bm25Scorer scorer = Bm25Scorer.of("пила", List.of(first, second), null, 2.0);
+
+        assertThat(TopK.select(List.of(first, second), scorer, 10))
+                .extracting(scored -> scored.item().getId()).containsExactly(5L, 7L);
+        assertThat(TopK.select(List.of(first, second), scorer, 0)).isEmpty();
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.server.item.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FuzzyTermIndexTest {
+
+    @Test
+    @DisplayName("Должен находить документы с опечатками в пределах допустимого числа правок")
+    void search_shouldFindDocumentsWithinEditDistance() {
+        FuzzyTermIndex index = new FuzzyTermIndex();
+        index.add(1L, "Дрель", "Ударная дрель Bosch");
+        index.add(2L, "Перфоратор", "Мощный, для бетона");
+        index.add(3L, "Шуруповерт", "Аккумуляторный");
+
+        assertThat(index.search("дрэль", 50, 500).itemIds()).containsExactly(1L);
+        assertThat(index.search("перфаротор", 50, 500).itemIds()).containsExactly(2L);
+        assertThat(index.search("шуруповерт акумуляторный", 50, 500).itemIds()).containsExactly(3L);
+        assertThat(index.search("перфаротор бош", 50, 500).itemIds()).isEmpty();
+        assertThat(index.search("пила", 50, 500).itemIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Должен требовать точного совпадения коротких слов и ограничивать число расширений")
+    void search_shouldMatchShortTokensExactlyAndCapExpansions() {
+        FuzzyTermIndex index = new FuzzyTermIndex();
+        index.add(1L, "Пила", "");
+        index.add(2L, "Пилы", "");
+        index.add(3L, "Кот", "");
+        index.add(4L, "Пилка", "");
+
+        assertThat(index.search("кит", 50, 500).itemIds()).isEmpty();
+        assertThat(index.search("кот", 50, 500).itemIds()).containsExactly(3L);
+        assertThat(index.search("пилы", 50, 500).itemIds()).containsExactly(1L, 2L);
+        FuzzyTermIndex.FuzzyResult capped = index.search("пилы", 1, 500);
+        assertThat(capped.terms()).containsExactly("пилы");
+        assertThat(capped.itemIds()).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Должен забывать термы удаленных документов")
+    void remove_shouldDropTermsOfRemovedDocuments() {
+        FuzzyTermIndex index = new FuzzyTermIndex();
+        index.add(1L, "Дрель", "Ударная");
+        index.add(2L, "Дрель", "Обычная");
+
+        index.remove(1L, "Дрель", "Ударная");
+
+        assertThat(index.search("дрэль", 50, 500).itemIds()).containsExactly(2L);
+        assertThat(index.search("ударная", 50, 500).itemIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Должен переиспользовать номера удаленных термов")
+    void add_shouldReuseSlotsOfDroppedTerms() {
+        FuzzyTermIndex index = new FuzzyTermIndex();
+        for (long id = 1; id <= 100; id++) {
+            index.add(id, "Дрель" + id, "");
+            index.remove(id, "Дрель" + id, "");
+        }
+        index.add(101L, "Перфоратор", "");
+
+        assertThat(index.termSlots()).isEqualTo(1);
+        assertThat(index.search("перфаротор", 50, 500).itemIds()).containsExactly(101L);
+    }
+
+    @Test
+    @DisplayName("Должен прекращать подсчет расстояния при превышении границы")
+    void boundedLevenshtein_shouldStopAfterBound() {
+        assertThat(FuzzyTermIndex.boundedLevenshtein("дрель", "дрэль", 1)).isEqualTo(1);
+        assertThat(FuzzyTermIndex.boundedLevenshtein("дрель", "дрелька", 2)).isEqualTo(2);
+        assertThat(FuzzyTermIndex.boundedLevenshtein("дрель", "пила", 1)).isEqualTo(2);
+    }
+}
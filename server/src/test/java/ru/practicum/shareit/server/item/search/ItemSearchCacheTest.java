@@ -0,0 +1,141 @@
+package ru.practicum.shareit.server.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.server.item.Item;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.item.enums.SearchMode;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ItemSearchCacheTest {
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final ItemSearchProperties properties = new ItemSearchProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+    private final ItemSearchCache cache = new ItemSearchCache(itemRepository, properties, meterRegistry, clock::get);
+
+    private final Item drill = new Item(1L, null, "Дрель", "Ударная", true, null);
+    private final Item saw = new Item(2L, null, "Пила", "Дисковая", true, null);
+
+    @Test
+    @DisplayName("Должен отдавать сохраненный результат и считать попадания и промахи")
+    void get_shouldReturnCachedResultAndRecordMetrics() {
+        SearchCacheKey key = cache.keyOf("  ДРЕЛЬ", false).orElseThrow();
+
+        assertThat(cache.get(key)).isEmpty();
+        cache.put(key, List.of(new ScoredItem(drill, 1.0)), cache.generation());
+
+        assertThat(cache.get(cache.keyOf("  дрель", false).orElseThrow()))
+                .hasValueSatisfying(cached -> assertThat(cached.page(null, 10))
+                        .containsExactly(new SearchCursor(1.0, 1L)));
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.size").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Должен вытеснять записи по TTL и по размеру")
+    void put_shouldEvictExpiredAndEldestEntries() {
+        properties.setCacheTtl(Duration.ofNanos(100));
+        properties.setCacheMaxEntries(2);
+        SearchCacheKey first = cache.keyOf("дрель", false).orElseThrow();
+        SearchCacheKey second = cache.keyOf("пила", false).orElseThrow();
+        SearchCacheKey third = cache.keyOf("ель", false).orElseThrow();
+
+        cache.put(first, List.of(new ScoredItem(drill, 1.0)), cache.generation());
+        cache.put(second, List.of(new ScoredItem(saw, 1.0)), cache.generation());
+        cache.get(first);
+        cache.put(third, List.of(new ScoredItem(drill, 1.0)), cache.generation());
+        assertThat(cache.get(second)).isEmpty();
+        assertThat(cache.get(first)).isPresent();
+
+        clock.addAndGet(100);
+        assertThat(cache.get(first)).isEmpty();
+        assertThat(meterRegistry.get("cache.evictions").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Должен вытеснять старые записи при превышении общего числа id")
+    void put_shouldEvictEldestEntriesOverTotalIdBudget() {
+        properties.setCacheMaxTotalIds(2);
+        SearchCacheKey first = cache.keyOf("дрель", false).orElseThrow();
+        SearchCacheKey second = cache.keyOf("пила", false).orElseThrow();
+
+        cache.put(first, List.of(new ScoredItem(drill, 1.0), new ScoredItem(saw, 0.5)), cache.generation());
+        cache.put(second, List.of(new ScoredItem(saw, 1.0)), cache.generation());
+
+        assertThat(cache.get(first)).isEmpty();
+        assertThat(cache.get(second)).isPresent();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Должен сбрасывать только запросы, затронутые изменением вещи")
+    void onItemSaved_shouldInvalidateOnlyAffectedQueries() {
+        SearchCacheKey drillQuery = cache.keyOf("дрел", false).orElseThrow();
+        SearchCacheKey sawQuery = cache.keyOf("пила", false).orElseThrow();
+        SearchCacheKey hammerQuery = cache.keyOf("молоток", false).orElseThrow();
+        SearchCacheKey fuzzyHammerQuery = cache.keyOf("малоток", true).orElseThrow();
+        cache.put(drillQuery, List.of(new ScoredItem(drill, 1.0)), cache.generation());
+        cache.put(sawQuery, List.of(new ScoredItem(saw, 1.0)), cache.generation());
+        cache.put(hammerQuery, List.of(), cache.generation());
+        cache.put(fuzzyHammerQuery, List.of(), cache.generation());
+
+        cache.onItemSaved(new Item(3L, null, "Молоток", "Слесарный", true, null));
+        assertThat(cache.get(hammerQuery)).isEmpty();
+        assertThat(cache.get(fuzzyHammerQuery)).isEmpty();
+        assertThat(cache.get(drillQuery)).isPresent();
+
+        cache.onItemSaved(new Item(1L, null, "Дрель", "Ударная", false, null));
+        assertThat(cache.get(drillQuery)).isEmpty();
+        assertThat(cache.get(sawQuery)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Должен проверять полнотекстовые запросы через базу и не сохранять устаревшие результаты")
+    void onItemSaved_shouldAskDatabaseForFullTextQueriesAndSkipStalePuts() {
+        properties.setMode(SearchMode.FULL_TEXT);
+        SearchCacheKey drills = cache.keyOf("Дрели  ", false).orElseThrow();
+        SearchCacheKey saws = cache.keyOf("пилы", false).orElseThrow();
+        cache.put(drills, List.of(), cache.generation());
+        cache.put(saws, List.of(), cache.generation());
+        when(itemRepository.findFullTextQueriesMatchingItem(5L, "дрели\u001Fпилы")).thenReturn(List.of("дрели"));
+
+        long generation = cache.generation();
+        cache.onItemSaved(new Item(5L, null, "Дрель", "Новая", true, null));
+        cache.put(drills, List.of(new ScoredItem(drill, 1.0)), generation);
+
+        assertThat(cache.get(drills)).isEmpty();
+        assertThat(cache.get(saws)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Должен сбросить полнотекстовые запросы без обращения к базе, если их больше лимита проверки")
+    void onItemSaved_shouldDropFullTextQueriesWithoutDatabase_ifOverCheckLimit() {
+        properties.setMode(SearchMode.FULL_TEXT);
+        properties.setCacheMaxFullTextChecks(1);
+        SearchCacheKey drills = cache.keyOf("дрели", false).orElseThrow();
+        SearchCacheKey saws = cache.keyOf("пилы", false).orElseThrow();
+        SearchCacheKey fuzzyHammers = cache.keyOf("малоток", true).orElseThrow();
+        cache.put(drills, List.of(), cache.generation());
+        cache.put(saws, List.of(), cache.generation());
+        cache.put(fuzzyHammers, List.of(), cache.generation());
+
+        cache.onItemSaved(new Item(5L, null, "Дрель", "Новая", true, null));
+
+        assertThat(cache.get(drills)).isEmpty();
+        assertThat(cache.get(saws)).isEmpty();
+        assertThat(cache.get(fuzzyHammers)).isPresent();
+        verifyNoInteractions(itemRepository);
+    }
+}
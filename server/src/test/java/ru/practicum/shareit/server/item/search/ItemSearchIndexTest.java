@@ -0,0 +1,106 @@
+package ru.practicum.shareit.server.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.server.item.Item;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.item.enums.SearchMode;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final ItemSearchProperties properties = new ItemSearchProperties();
+    private final ItemSearchIndex index = new ItemSearchIndex(itemRepository, properties);
+
+    @BeforeEach
+    void setUp() {
+        properties.setMode(SearchMode.TRIGRAM);
+    }
+
+    @Test
+    @DisplayName("Не должен учитывать вещь дважды, если она сохранена во время загрузки индекса")
+    void load_shouldNotCountItemSavedDuringLoadTwice() {
+        Item drill = new Item(1L, null, "Дрель ударная", "Мощная", true, null);
+        Item renamed = new Item(1L, null, "Дрель", "Мощная", true, null);
+        when(itemRepository.findAvailableItemTexts(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            index.onItemSaved(renamed, new ItemText(1L, drill.getName(), drill.getDescription()));
+            return List.of(new ItemText(1L, drill.getName(), drill.getDescription()));
+        });
+        when(itemRepository.findByIdInAndAvailableTrue(anyCollection())).thenReturn(List.of(renamed));
+
+        index.load();
+
+        CorpusStats stats = index.corpusStats().orElseThrow();
+        assertThat(stats.documentCount()).isEqualTo(1);
+        assertThat(stats.averageNameLength()).isEqualTo(1.0);
+        assertThat(index.suggest("дрель", 10)).containsExactly("Дрель");
+    }
+
+    @Test
+    @DisplayName("Должен пересчитывать статистику при повторном сохранении и снятии вещи с доступа")
+    void onItemSaved_shouldReplaceIndexedVersion() {
+        when(itemRepository.findAvailableItemTexts(anyLong(), any(Limit.class))).thenReturn(List.of());
+        index.load();
+
+        index.onItemSaved(new Item(1L, null, "Дрель", "Мощная ударная", true, null), null);
+        index.onItemSaved(new Item(1L, null, "Дрель", "Мощная ударная", true, null),
+                new ItemText(1L, "Дрель", "Мощная ударная"));
+        index.onItemSaved(new Item(2L, null, "Пила", "Дисковая", true, null), null);
+        index.onItemSaved(new Item(2L, null, "Пила", "Дисковая", false, null), new ItemText(2L, "Пила", "Дисковая"));
+
+        CorpusStats stats = index.corpusStats().orElseThrow();
+        assertThat(stats.documentCount()).isEqualTo(1);
+        assertThat(stats.averageDescriptionLength()).isEqualTo(2.0);
+        assertThat(index.suggest("пи", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Должен убрать старые термы и имя переименованной вещи, не храня ее текст")
+    void onItemSaved_shouldForgetOldTermsOfRenamedItem() {
+        when(itemRepository.findAvailableItemTexts(anyLong(), any(Limit.class)))
+                .thenReturn(List.of(new ItemText(1L, "Дрель", "Ударная")))
+                .thenReturn(List.of());
+        properties.setBatchSize(1);
+        index.load();
+
+        index.onItemSaved(new Item(1L, null, "Пила", "Дисковая", true, null), null);
+
+        assertThat(index.fuzzySearch("дрель").orElseThrow().items()).isEmpty();
+        assertThat(index.fuzzySearch("ударная").orElseThrow().items()).isEmpty();
+        assertThat(index.suggest("дре", 10)).isEmpty();
+        assertThat(index.suggest("пи", 10)).containsExactly("Пила");
+    }
+
+    @Test
+    @DisplayName("Должен ранжировать в режиме FULL_TEXT по статистике всего корпуса, а не только найденных вещей")
+    void corpusStats_shouldRankByWholeCorpus_inFullTextMode() {
+        properties.setMode(SearchMode.FULL_TEXT);
+        when(itemRepository.findAvailableItemTexts(anyLong(), any(Limit.class))).thenReturn(List.of(
+                new ItemText(1L, "Дрель", "Ударная дрель"),
+                new ItemText(2L, "Пила", "Дисковая пила"),
+                new ItemText(3L, "Молоток", "Слесарный молоток"),
+                new ItemText(4L, "Лестница", "Стремянка на шесть ступеней")));
+        index.load();
+        Item drill = new Item(1L, null, "Дрель", "Ударная дрель", true, null);
+
+        CorpusStats stats = index.corpusStats().orElseThrow();
+        double corpusScore = Bm25Scorer.of("дрель", List.of(drill), stats, 2.0).score(drill);
+        double matchesOnlyScore = Bm25Scorer.of("дрель", List.of(drill), null, 2.0).score(drill);
+
+        assertThat(stats.documentCount()).isEqualTo(4);
+        assertThat(stats.averageNameLength()).isEqualTo(1.0);
+        assertThat(stats.averageDescriptionLength()).isEqualTo(2.5);
+        assertThat(corpusScore).isGreaterThan(matchesOnlyScore * 2);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.server.item.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NamePrefixTrieTest {
+
+    @Test
+    @DisplayName("Должен возвращать самые частые названия с заданным префиксом")
+    void suggest_shouldReturnMostFrequentNamesFirst() {
+        NamePrefixTrie trie = new NamePrefixTrie();
+        trie.add("Дрель");
+        trie.add("Дрель ударная");
+        trie.add("дрель ударная");
+        trie.add("Дрезина");
+        trie.add("Пила");
+
+        assertThat(trie.suggest("ДРЕ", 10)).containsExactly("дрель ударная", "Дрель", "Дрезина");
+        assertThat(trie.suggest("дре", 1)).containsExactly("дрель ударная");
+        assertThat(trie.suggest("молоток", 10)).isEmpty();
+        assertThat(trie.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Должен учитывать удаление названий и удалять пустые ветки")
+    void remove_shouldDecrementCountsAndPruneNodes() {
+        NamePrefixTrie trie = new NamePrefixTrie();
+        trie.add("Дрель ударная");
+        trie.add("Дрель ударная");
+        trie.add("Дрезина");
+        trie.add("Дрезина");
+        trie.add("Дрезина");
+
+        trie.remove("Дрезина");
+        trie.remove("Дрезина");
+
+        assertThat(trie.suggest("дре", 10)).containsExactly("Дрель ударная", "Дрезина");
+
+        trie.remove("Дрезина");
+        trie.remove("Дрезина");
+        trie.remove("Молоток");
+
+        assertThat(trie.suggest("дре", 10)).containsExactly("Дрель ударная");
+        assertThat(trie.suggest("дрез", 10)).isEmpty();
+    }
+}
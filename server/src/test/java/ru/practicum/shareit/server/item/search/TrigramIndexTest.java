@@ -0,0 +1,79 @@
+package ru.practicum.shareit.server.item.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    @Test
+    @DisplayName("Должен находить документы по подстроке в названии и описании без учета регистра")
+    void search_shouldFindDocumentsBySubstringIgnoringCase() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(1L, "Дрель", "Ударная дрель Bosch");
+        index.add(2L, "Перфоратор", "Мощный, для бетона");
+        index.add(3L, "Drill", "Cordless DRILL");
+
+        assertThat(index.search("ДРЕЛ")).containsExactly(1L);
+        assertThat(index.search("бетон")).containsExactly(2L);
+        assertThat(index.search("drill")).containsExactly(3L);
+        assertThat(index.search("молоток")).isEmpty();
+        assertThat(index.documentCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Должен обновлять постинги при изменении текста")
+    void update_shouldReplaceOldTrigramsWithNewOnes() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(1L, "Дрель", "Старая");
+
+        index.update(1L, new String[]{"Дрель", "Старая"}, new String[]{"Пила", "Новая"});
+
+        assertThat(index.search("дрель")).isEmpty();
+        assertThat(index.search("старая")).isEmpty();
+        assertThat(index.search("пила")).containsExactly(1L);
+        assertThat(index.search("новая")).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Должен удалять документ из индекса")
+    void remove_shouldRemoveDocument() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(1L, "Дрель", "Ударная");
+        index.add(2L, "Дрель", "Аккумуляторная");
+
+        index.remove(1L, "Дрель", "Ударная");
+
+        assertThat(index.search("дрель")).containsExactly(2L);
+        assertThat(index.documentCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Не должен считать искомыми строки короче триграммы")
+    void isSearchable_shouldRequireAtLeastThreeCharacters() {
+        assertThat(TrigramIndex.isSearchable(null)).isFalse();
+        assertThat(TrigramIndex.isSearchable("ab")).isFalse();
+        assertThat(TrigramIndex.isSearchable("abc")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Должен пересекать отсортированные списки и сохранять порядок")
+    void intersect_shouldReturnCommonIdsInAscendingOrder() {
+        LongPostingList first = new LongPostingList();
+        LongPostingList second = new LongPostingList();
+        for (long id : new long[]{9L, 1L, 5L, 3L, 7L, 5L}) {
+            first.add(id);
+        }
+        for (long id : new long[]{2L, 3L, 9L, 7L}) {
+            second.add(id);
+        }
+        second.remove(2L);
+
+        assertThat(first.size()).isEqualTo(5);
+        assertThat(first.toArray()).containsExactly(1L, 3L, 5L, 7L, 9L);
+        assertThat(LongPostingList.intersect(List.of(first, second))).containsExactly(3L, 7L, 9L);
+    }
+}